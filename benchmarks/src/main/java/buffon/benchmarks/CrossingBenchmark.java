@@ -0,0 +1,96 @@
+package buffon.benchmarks;
+
+import buffon.engine.LineGrid;
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.RandomType;
+import buffon.model.NeedleBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the crossing test over a pre-generated batch of needles.
+ * The cost per needle should not depend on the number of strips.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossingBenchmark {
+
+	/**
+	 * The number of needles in the scored batch.
+	 */
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * The number of strips.
+	 */
+	@Param({"2", "10", "100", "1000", "10000"})
+	public int strips;
+
+	/**
+	 * The engine which scores the batch.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The line grid of the engine.
+	 */
+	private LineGrid lines;
+
+	/**
+	 * The pre-generated batch.
+	 */
+	private NeedleBatch batch = new NeedleBatch(BATCH_SIZE);
+
+	/**
+	 * Creates the engine and generates the batch.
+	 */
+	@Setup
+	public void setup() {
+		engine = new SimulationEngine(RandomType.XOROSHIRO.create(42));
+		engine.setGeometry(strips * 100, 600, strips, 0.5);
+		engine.generateBatch(batch, BATCH_SIZE);
+		lines = new LineGrid(engine.getDistance(), strips);
+	}
+
+	/**
+	 * Scores the whole batch through the engine; the result is per needle.
+	 *
+	 * @return the number of hits
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public int scoreBatch() {
+		return engine.scoreBatch(batch);
+	}
+
+	/**
+	 * Runs the bare crossing test over the batch; the result is per needle.
+	 *
+	 * @return the number of hits
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public int crosses() {
+		int hits = 0;
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			if (lines.crosses(batch.x1[i], batch.x2[i])) hits++;
+		}
+		return hits;
+	}
+}
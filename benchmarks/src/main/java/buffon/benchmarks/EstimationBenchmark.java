@@ -0,0 +1,62 @@
+package buffon.benchmarks;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.RandomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole throw-score-update cycle of batches as thrown
+ * by a worker. Parallel runs are measured by {@link ParallelBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstimationBenchmark {
+
+	/**
+	 * The number of needles thrown by the batch benchmark.
+	 */
+	private static final int NEEDLES = 1 << 20;
+
+	/**
+	 * The benchmarked engine.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * Creates the engine.
+	 */
+	@Setup
+	public void setup() {
+		engine = new SimulationEngine(RandomType.XOROSHIRO.create(42));
+		engine.setGeometry(600, 600, 3, 0.5);
+	}
+
+	/**
+	 * Throws needles in batches on the calling thread and merges
+	 * the result; the result is per needle.
+	 *
+	 * @return the estimate of π
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public double countHits() {
+		engine.merge(NEEDLES, engine.countHits(NEEDLES));
+		return engine.getPI();
+	}
+}
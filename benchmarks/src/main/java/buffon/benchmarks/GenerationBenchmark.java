@@ -0,0 +1,83 @@
+package buffon.benchmarks;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.RandomType;
+import buffon.engine.sampling.SamplingMode;
+import buffon.model.NeedleBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of needles in batches, as done by the
+ * canvas and by the workers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+	/**
+	 * The generator algorithm.
+	 */
+	@Param({"SPLITTABLE", "XOROSHIRO", "PCG"})
+	public RandomType generator;
+
+	/**
+	 * The sampling mode; {@code DISC} avoids the trigonometric functions.
+	 */
+	@Param({"UNIFORM", "DISC"})
+	public SamplingMode sampling;
+
+	/**
+	 * The number of needles generated at once.
+	 */
+	@Param({"256", "1024", "4096"})
+	public int batchSize;
+
+	/**
+	 * The benchmarked engine.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The batch to fill.
+	 */
+	private NeedleBatch batch;
+
+	/**
+	 * Creates the engine and the batch.
+	 */
+	@Setup
+	public void setup() {
+		engine = new SimulationEngine(generator.create(42));
+		engine.setGeometry(600, 600, 3, 0.5);
+		engine.setSamplingMode(sampling);
+		batch = new NeedleBatch(batchSize);
+	}
+
+	/**
+	 * Fills a whole batch; the result is per batch of
+	 * {@link #batchSize} needles.
+	 *
+	 * @return the filled batch
+	 */
+	@Benchmark
+	public NeedleBatch generateBatch() {
+		engine.generateBatch(batch, batchSize);
+		return batch;
+	}
+}
@@ -0,0 +1,69 @@
+package buffon.benchmarks;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.kernel.KernelType;
+import buffon.engine.random.RandomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the kernels of headless runs on a single thread. The forks
+ * load the Vector API module, so they need JDK 17 or newer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class KernelBenchmark {
+
+	/**
+	 * The number of needles thrown per invocation.
+	 */
+	private static final int NEEDLES = 1 << 16;
+
+	/**
+	 * The benchmarked kernel.
+	 */
+	@Param({"GEOMETRIC", "REDUCED", "VECTOR"})
+	public KernelType kernel;
+
+	/**
+	 * The engine owning the kernel.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * Creates the engine.
+	 */
+	@Setup
+	public void setup() {
+		engine = new SimulationEngine(RandomType.XOROSHIRO.create(42));
+		engine.setGeometry(600, 600, 3, 0.5);
+		engine.setKernelType(kernel);
+	}
+
+	/**
+	 * Throws needles through the kernel; the result is per needle.
+	 *
+	 * @return the number of hits
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public int countHits() {
+		return engine.countHits(NEEDLES);
+	}
+}
@@ -0,0 +1,85 @@
+package buffon.benchmarks;
+
+import buffon.engine.ParallelSimulation;
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.RandomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throw-score-update cycle of a parallel run over the
+ * given number of threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+
+	/**
+	 * The number of needles thrown per invocation.
+	 */
+	private static final int NEEDLES = 1 << 20;
+
+	/**
+	 * The number of worker threads of the parallel run.
+	 */
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	/**
+	 * The engine the results are merged into.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The benchmarked parallel simulation.
+	 */
+	private ParallelSimulation simulation;
+
+	/**
+	 * Creates the engine and the parallel simulation.
+	 */
+	@Setup
+	public void setup() {
+		engine = new SimulationEngine(RandomType.XOROSHIRO.create(42));
+		engine.setGeometry(600, 600, 3, 0.5);
+		simulation = new ParallelSimulation(engine, threads, RandomType.XOROSHIRO.create(43));
+	}
+
+	/**
+	 * Shuts down the parallel simulation.
+	 */
+	@TearDown
+	public void tearDown() {
+		simulation.shutdown();
+	}
+
+	/**
+	 * Throws needles on the worker threads; the result is per needle.
+	 *
+	 * @return the estimate of π
+	 * @throws InterruptedException if interrupted
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public double parallel() throws InterruptedException {
+		simulation.run(NEEDLES);
+		return engine.getPI();
+	}
+}
@@ -0,0 +1,135 @@
+package buffon.benchmarks;
+
+import buffon.components.canvas.NeedleRasterizer;
+import buffon.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures drawing a needle onto the canvas image, through
+ * {@code Graphics2D} and through the {@link NeedleRasterizer} the canvas
+ * uses, and coloring an icon with {@link Util#colorImage}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderingBenchmark {
+
+	/**
+	 * The size of the canvas image.
+	 */
+	private static final int SIZE = 600;
+
+	/**
+	 * The size of the colored icon.
+	 */
+	private static final int ICON_SIZE = 128;
+
+	/**
+	 * The canvas image.
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The graphics of the canvas image.
+	 */
+	private Graphics2D g2d;
+
+	/**
+	 * The rasterizer drawing onto the canvas image.
+	 */
+	private NeedleRasterizer rasterizer;
+
+	/**
+	 * The colored icon.
+	 */
+	private BufferedImage icon;
+
+	/**
+	 * The generator of the needle coordinates.
+	 */
+	private SplittableRandom random = new SplittableRandom(42);
+
+	/**
+	 * Creates the images.
+	 */
+	@Setup
+	public void setup() {
+		image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+		g2d = image.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		rasterizer = new NeedleRasterizer(image);
+		icon = new BufferedImage(ICON_SIZE, ICON_SIZE, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * Disposes of the graphics.
+	 */
+	@TearDown
+	public void tearDown() {
+		g2d.dispose();
+	}
+
+	/**
+	 * Draws a single antialiased needle.
+	 *
+	 * @return the image
+	 */
+	@Benchmark
+	public BufferedImage drawLine() {
+		int x = random.nextInt(SIZE);
+		int y = random.nextInt(SIZE);
+
+		Stroke temp = g2d.getStroke();
+		g2d.setStroke(new BasicStroke(1.8f));
+		g2d.setColor(new Color(random.nextInt(1 << 24)));
+		g2d.drawLine(x - 50, y - 50, x + 50, y + 50);
+		g2d.setStroke(temp);
+		return image;
+	}
+
+	/**
+	 * Draws the same needle as {@link #drawLine()} with the rasterizer.
+	 *
+	 * @return the image
+	 */
+	@Benchmark
+	public BufferedImage rasterize() {
+		int x = random.nextInt(SIZE);
+		int y = random.nextInt(SIZE);
+
+		rasterizer.draw(x - 50, y - 50, x + 50, y + 50, 0xff000000 | random.nextInt(1 << 24));
+		return image;
+	}
+
+	/**
+	 * Colors the whole icon.
+	 *
+	 * @return the colored icon
+	 */
+	@Benchmark
+	public BufferedImage colorImage() {
+		return Util.colorImage(icon, Color.BLUE);
+	}
+}
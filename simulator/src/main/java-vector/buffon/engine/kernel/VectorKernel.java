@@ -0,0 +1,143 @@
+package buffon.engine.kernel;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.IRandomGenerator;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A kernel which throws as many needles per instruction as there are
+ * 64-bit lanes in the widest vector of the CPU, using the JDK Vector API.
+ * <p>
+ * Every lane runs its own xoroshiro128++ generator, seeded from the
+ * engine's generator. For each needle, the x coordinate of its centre
+ * and its angle are sampled uniformly, the x coordinates of its endpoints
+ * are projected through the cosine of the angle, and the needle crosses
+ * a line if and only if its endpoints lie in different strips. The y
+ * coordinate does not affect the crossing, so it is not sampled.
+ * Like the reduced kernel, it always samples the needles independently,
+ * regardless of the sampling mode of the engine.
+ * <p>
+ * This class is compiled only on JDK 17 or newer (see the {@code vector}
+ * profile) and needs the {@code jdk.incubator.vector} module at runtime;
+ * {@link KernelType#VECTOR} falls back to the scalar kernel otherwise.
+ */
+public class VectorKernel implements INeedleKernel {
+
+	/**
+	 * The shape of the vectors of 64-bit values.
+	 */
+	private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+	/**
+	 * The shape of the vectors of doubles; has as many lanes as {@link #LONGS}.
+	 */
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * The engine whose geometry is used.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The kernel throwing the needles which do not fill a whole vector.
+	 */
+	private INeedleKernel tail;
+
+	/**
+	 * The first halves of the lanes' generator states.
+	 */
+	private LongVector s0;
+
+	/**
+	 * The second halves of the lanes' generator states.
+	 */
+	private LongVector s1;
+
+	/**
+	 * Creates a new kernel.
+	 *
+	 * @param engine the engine whose geometry and generator are used
+	 */
+	public VectorKernel(SimulationEngine engine) {
+		this.engine = engine;
+		this.tail = new GeometricKernel(engine);
+
+		IRandomGenerator rand = engine.getRandom();
+		long[] a = new long[LONGS.length()];
+		long[] b = new long[LONGS.length()];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = rand.nextLong();
+			b[i] = rand.nextLong() | 1; // the state must not be all zeros
+		}
+		s0 = LongVector.fromArray(LONGS, a, 0);
+		s1 = LongVector.fromArray(LONGS, b, 0);
+	}
+
+	@Override
+	public int countHits(int count) {
+		int lanes = LONGS.length();
+		int strips = engine.getLineGrid().getStrips();
+		double halfLength = engine.getNeedleLength() / 2 / engine.getDistance();
+
+		int hits = 0;
+		int i = 0;
+		for (; i + lanes <= count; i += lanes) {
+			// the coordinates are in units of the distance between the lines, shifted by one
+			DoubleVector x = nextDouble().mul(strips).add(1);
+			DoubleVector angle = nextDouble().mul(2 * Math.PI);
+			DoubleVector projection = angle.lanewise(VectorOperators.COS).mul(halfLength);
+
+			// endpoints beyond the outer lines are clamped, so that truncation numbers the strips
+			LongVector strip1 = strip(x.sub(projection), strips);
+			LongVector strip2 = strip(x.add(projection), strips);
+			hits += strip1.compare(VectorOperators.NE, strip2).trueCount();
+		}
+
+		// the remaining needles are thrown by the scalar kernel
+		if (i < count) {
+			hits += tail.countHits(count - i);
+		}
+		return hits;
+	}
+
+	/**
+	 * Returns the numbers of the strips containing the given shifted
+	 * x coordinates: 0 left of the first line, {@code strips + 1}
+	 * right of the last one.
+	 *
+	 * @param x      the x coordinates, shifted by one
+	 * @param strips the number of strips
+	 * @return the numbers of the strips
+	 */
+	private static LongVector strip(DoubleVector x, int strips) {
+		DoubleVector clamped = x.max(0.5).min(strips + 1.5);
+		return (LongVector) clamped.convert(VectorOperators.D2L, 0);
+	}
+
+	/**
+	 * Advances the lanes' generators and returns their next values,
+	 * uniformly distributed over [0.0, 1.0).
+	 *
+	 * @return the next pseudo-random doubles
+	 */
+	private DoubleVector nextDouble() {
+		LongVector result = s0.add(s1).lanewise(VectorOperators.ROL, 17).add(s0);
+
+		LongVector t = s1.lanewise(VectorOperators.XOR, s0);
+		s0 = s0.lanewise(VectorOperators.ROL, 49)
+				.lanewise(VectorOperators.XOR, t)
+				.lanewise(VectorOperators.XOR, t.lanewise(VectorOperators.LSHL, 21));
+		s1 = t.lanewise(VectorOperators.ROL, 28);
+
+		return ((DoubleVector) result.lanewise(VectorOperators.LSHR, 11)
+				.convert(VectorOperators.L2D, 0)).mul(0x1.0p-53);
+	}
+
+	@Override
+	public boolean usesSampler() {
+		return false;
+	}
+}
@@ -0,0 +1,34 @@
+package buffon;
+
+import buffon.cli.BatchRunner;
+
+/**
+ * The entry point of the application jar. If any command line arguments
+ * are given, the simulation is run headless, through the
+ * {@link BatchRunner}; otherwise, the graphical interface is opened.
+ * <p>
+ * The class references no AWT or Swing class itself, so a batch run
+ * switches AWT to headless mode before any of it is loaded; {@link Main}
+ * is only loaded when the graphical interface is opened.
+ */
+public class Launcher {
+
+	/**
+	 * Not instantiable.
+	 */
+	private Launcher() {
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args command line arguments; see {@link BatchRunner}
+	 */
+	public static void main(String[] args) {
+		if (args.length > 0) {
+			BatchRunner.main(args);
+		} else {
+			Main.main(args);
+		}
+	}
+}
@@ -2,14 +2,16 @@ package buffon;
 
 import buffon.components.canvas.Canvas;
 import buffon.components.canvas.update.IUpdateListener;
-import buffon.components.canvas.update.IUpdateProvider;
+import buffon.components.canvas.update.UpdateSnapshot;
 import buffon.components.controls.Controls;
+import buffon.dialog.options.OptionsProvider;
 import buffon.util.Util;
 
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
@@ -17,7 +19,10 @@ import javax.swing.WindowConstants;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * A simple simulator of the Buffon's needle problem.
@@ -35,14 +40,15 @@ public class Main extends JFrame implements IUpdateListener {
 	private static final int SIZE = 600;
 
 	/**
-	 * The drawing canvas.
+	 * The drawing canvas. Created together with the main frame, so
+	 * that running in batch mode does not initialize any component.
 	 */
-	private static Canvas canvas = new Canvas();
+	private static Canvas canvas;
 
 	/**
 	 * The controls panel.
 	 */
-	private static Controls controls = new Controls();
+	private static Controls controls;
 
 	/**
 	 * The main frame reference.
@@ -105,12 +111,15 @@ public class Main extends JFrame implements IUpdateListener {
 		} catch (IOException e) {
 			Util.displayErrorDialog();
 		}
+		SwingUtilities.invokeLater(this::offerResume);
 	}
 
 	/**
-	 * The main method.
+	 * The main method; opens the graphical interface. Batch runs are
+	 * started through the {@link Launcher}, which does not load this
+	 * frame at all.
 	 *
-	 * @param args command line arguments; not used in this program
+	 * @param args command line arguments; ignored
 	 */
 	public static void main(String args[]) {
 		SwingUtilities.invokeLater(Main::new);
@@ -144,6 +153,14 @@ public class Main extends JFrame implements IUpdateListener {
 
 		setLayout(new BorderLayout());
 
+		canvas = new Canvas();
+		controls = new Controls();
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				canvas.close();
+			}
+		});
 		canvas.addUpdateListener(this);
 		controls.setCanvas(canvas);
 
@@ -153,6 +170,21 @@ public class Main extends JFrame implements IUpdateListener {
 		add(controls, BorderLayout.LINE_END);
 	}
 
+	/**
+	 * Asks whether to resume the saved simulation, if there is one, and
+	 * resumes it if so. Called once the frame has been laid out, rather
+	 * than from the canvas itself, so that nothing is replaced without
+	 * being asked for.
+	 */
+	private void offerResume() {
+		if (!Files.exists(Canvas.getCheckpointFile())) return;
+
+		validate();
+		int answer = JOptionPane.showConfirmDialog(this, "Resume the last saved simulation?",
+				"Resume", JOptionPane.YES_NO_OPTION);
+		if (answer == JOptionPane.YES_OPTION) controls.resumeLastRun();
+	}
+
 	// Getters
 
 	/**
@@ -174,12 +206,19 @@ public class Main extends JFrame implements IUpdateListener {
 	}
 
 	@Override
-	public void update(IUpdateProvider provider) {
-		Canvas c = (Canvas) provider; // the provider is always the canvas
+	public void update(UpdateSnapshot snapshot) {
+		String valuesText = thrownCountPrefix + snapshot.getThrownCount() + " | " + hitCountPrefix + snapshot.getHitCount();
+		if (!valuesText.equals(valuesLabel.getText())) {
+			valuesLabel.setText(valuesText);
+		}
 
-		String thrownCountText = thrownCountPrefix + c.getThrownCount();
-		String hitCountText = hitCountPrefix + c.getHitCount();
-		valuesLabel.setText(thrownCountText + " | " + hitCountText);
-		piLabel.setText(piPrefix + c.getPI());
+		int digits = (int) OptionsProvider.getOption(OptionsProvider.NUMBER_OF_DIGITS).getValue();
+		String piText = piPrefix + snapshot.getPI(digits);
+		if (!Double.isInfinite(snapshot.getHalfWidth())) {
+			piText += String.format(" ± %." + (digits + 1) + "f", snapshot.getHalfWidth());
+		}
+		if (!piText.equals(piLabel.getText())) {
+			piLabel.setText(piText);
+		}
 	}
-}
\ No newline at end of file
+}
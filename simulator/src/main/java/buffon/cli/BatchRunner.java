@@ -0,0 +1,420 @@
+package buffon.cli;
+
+import buffon.engine.Checkpoint;
+import buffon.engine.Convergence;
+import buffon.engine.ParallelSimulation;
+import buffon.engine.SimulationEngine;
+import buffon.engine.kernel.KernelType;
+import buffon.engine.random.IRandomGenerator;
+import buffon.engine.random.RandomType;
+import buffon.engine.sampling.SamplingMode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless command-line runner of the simulation. Runs the engine
+ * on all available cores, without initializing any graphical
+ * component, and prints the periodic and the final estimates of π
+ * as CSV or as JSON lines.
+ * <p>
+ * Usage: {@code BatchRunner --needles N [--strips S] [--length-factor F]
+ * [--seed X] [--threads T] [--generator splittable|xoroshiro|pcg]
+ * [--sampling uniform|antithetic|stratified|sobol|halton|disc] [--kernel geometric|reduced|vector] [--report-every R]
+ * [--confidence C] [--precision E] [--format csv|json]
+ * [--checkpoint FILE] [--checkpoint-every SECONDS] [--resume FILE]}
+ * <p>
+ * Each estimate is printed together with the bounds of its confidence
+ * interval and the estimated total number of needles needed to halve
+ * the width of the interval. With {@code --precision}, the run stops
+ * as soon as the half-width of the interval drops below the given
+ * value; {@code --needles} is then optional and caps the run.
+ * <p>
+ * With {@code --checkpoint}, the state of the run is saved to the given
+ * file every few seconds and once more at the end (see {@link Checkpoint}).
+ * {@code --resume} continues a run from such a file, with its saved
+ * parameters (the geometry, generator, sampling and kernel options are
+ * ignored), towards its saved number of needles unless {@code --needles}
+ * is given, and to its saved target precision and confidence level unless
+ * {@code --precision} is given; a saved run with no stopping rule at all
+ * must be given one. Its checkpoints are written back to the same file unless
+ * {@code --checkpoint} is given. The interrupted batch of needles is
+ * finished by the saved workers, so resuming with the same number of
+ * threads reproduces the counts of an uninterrupted run. Runs of the
+ * {@code sobol} and {@code halton} sampling modes and of the {@code vector}
+ * kernel cannot be checkpointed: only the generators are saved, not the
+ * positions of the sequences or the generators of the vector lanes.
+ */
+public class BatchRunner {
+
+	/**
+	 * The distance between the lines, in the engine's units. Since the
+	 * estimate does not depend on the scale, any positive value will do.
+	 */
+	private static final int DISTANCE = 1000;
+
+	/**
+	 * The number of needles to throw.
+	 */
+	private long needles = -1;
+
+	/**
+	 * The number of strips.
+	 */
+	private int strips = 3;
+
+	/**
+	 * The needle length, as a portion of the distance between the lines.
+	 */
+	private double lengthFactor = 0.5;
+
+	/**
+	 * The seed of the master generator.
+	 */
+	private long seed = System.nanoTime();
+
+	/**
+	 * The number of worker threads.
+	 */
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The generator algorithm.
+	 */
+	private RandomType generator = RandomType.XOROSHIRO;
+
+	/**
+	 * The needle sampling strategy.
+	 */
+	private SamplingMode sampling = SamplingMode.UNIFORM;
+
+	/**
+	 * The kernel throwing the needles.
+	 */
+	private KernelType kernel = KernelType.GEOMETRIC;
+
+	/**
+	 * The number of needles between two periodic estimates, or 0 for
+	 * printing only the final estimate.
+	 */
+	private long reportEvery;
+
+	/**
+	 * The confidence level of the printed interval.
+	 */
+	private double confidence = 0.99;
+
+	/**
+	 * The target half-width of the confidence interval, or 0 for none.
+	 */
+	private double precision;
+
+	/**
+	 * A flag denoting whether to print JSON lines instead of CSV.
+	 */
+	private boolean json;
+
+	/**
+	 * The file to save the checkpoints to, or {@code null} for none.
+	 */
+	private Path checkpoint;
+
+	/**
+	 * The time between two checkpoints, in seconds.
+	 */
+	private long checkpointEvery = 5;
+
+	/**
+	 * The checkpoint to resume the run from, or {@code null} for a new run.
+	 */
+	private Path resume;
+
+	/**
+	 * The stream to print the estimates to.
+	 */
+	private PrintStream out;
+
+	/**
+	 * Creates a new runner from the given command line arguments.
+	 *
+	 * @param args the command line arguments
+	 * @param out  the stream to print the estimates to
+	 * @throws IllegalArgumentException if the arguments are invalid
+	 */
+	public BatchRunner(String[] args, PrintStream out) {
+		this.out = out;
+		parse(args);
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args command line arguments; see {@link BatchRunner}
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		BatchRunner runner;
+		try {
+			runner = new BatchRunner(args, System.out);
+		} catch (IllegalArgumentException e) {
+			System.err.println("Error: " + e.getMessage());
+			System.err.println("Usage: --needles N [--strips S] [--length-factor F] [--seed X] [--threads T]"
+					+ " [--generator splittable|xoroshiro|pcg] [--sampling uniform|antithetic|stratified|sobol|halton|disc]"
+					+ " [--kernel geometric|reduced|vector] [--report-every R] [--confidence C] [--precision E] [--format csv|json]"
+					+ " [--checkpoint FILE] [--checkpoint-every SECONDS] [--resume FILE]");
+			System.exit(2);
+			return;
+		}
+
+		try {
+			runner.run();
+		} catch (IOException e) {
+			System.err.println("Error: " + e.getMessage());
+			System.exit(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs the simulation, printing the estimates as it goes.
+	 *
+	 * @throws IOException          if the checkpoint to resume from cannot be read
+	 * @throws InterruptedException if interrupted while running
+	 */
+	public void run() throws IOException, InterruptedException {
+		SimulationEngine engine;
+		IRandomGenerator master;
+		Checkpoint restored = null;
+		if (resume != null) {
+			restored = Checkpoint.read(resume);
+			restored.checkResumable();
+			engine = restored.createEngine();
+			master = restored.createRandom();
+			if (precision == 0 && restored.getPrecision() > 0) {
+				precision = restored.getPrecision();
+				confidence = restored.getConfidence();
+			}
+			if (needles < 0) {
+				needles = restored.getTarget();
+				if (precision == 0 && (needles == 0 || needles == Long.MAX_VALUE)) {
+					throw new IOException(resume + ": the saved run has no stopping rule; give --needles or --precision");
+				}
+			}
+			if (checkpoint == null) checkpoint = resume;
+		} else {
+			IRandomGenerator random = generator.create(seed);
+			engine = new SimulationEngine(random);
+			engine.setGeometry(strips * DISTANCE, DISTANCE, strips, lengthFactor);
+			engine.setSamplingMode(sampling);
+			engine.setKernelType(kernel);
+			master = random.split();
+		}
+		if (engine.getKernelType() == KernelType.VECTOR && !KernelType.isVectorAvailable()) {
+			System.err.println("Vector API not available (run with --add-modules jdk.incubator.vector on JDK 17+);"
+					+ " using the geometric kernel");
+		}
+
+		ParallelSimulation simulation = new ParallelSimulation(engine, threads, master);
+		long start = System.nanoTime() - (restored != null ? restored.getElapsedNanos() : 0);
+		ScheduledExecutorService checkpointer = null;
+		if (checkpoint != null) {
+			checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "checkpoint-writer");
+				t.setDaemon(true);
+				return t;
+			});
+			checkpointer.scheduleWithFixedDelay(() -> saveCheckpoint(simulation, start),
+					checkpointEvery, checkpointEvery, TimeUnit.SECONDS);
+		}
+
+		try {
+			if (!json) out.println("needles,hits,pi,ci_lower,ci_upper,needles_to_halve,seconds,final");
+
+			long step = reportEvery > 0 ? reportEvery : needles;
+			boolean reached = false;
+			if (restored != null && restored.getWorkerCount() > 0) {
+				if (precision > 0) {
+					reached = simulation.resumeUntil(restored, precision, confidence);
+				} else {
+					simulation.resume(restored);
+				}
+				print(engine, (System.nanoTime() - start) / 1e9, engine.getThrownCount() >= needles || reached);
+			}
+			while (engine.getThrownCount() < needles && !reached) {
+				long n = Math.min(step, needles - engine.getThrownCount());
+				if (precision > 0) {
+					reached = simulation.runUntil(precision, confidence, n);
+				} else {
+					simulation.run(n);
+				}
+				print(engine, (System.nanoTime() - start) / 1e9, engine.getThrownCount() >= needles || reached);
+			}
+			if (needles == 0) print(engine, 0, true);
+		} finally {
+			if (checkpointer != null) {
+				checkpointer.shutdownNow();
+				checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+				saveCheckpoint(simulation, start);
+			}
+			simulation.shutdown();
+		}
+	}
+
+	/**
+	 * Saves a checkpoint of the given simulation, reporting a failure
+	 * to the standard error without stopping the run.
+	 *
+	 * @param simulation the simulation
+	 * @param start      the time the run has started at, in nanoseconds
+	 */
+	private void saveCheckpoint(ParallelSimulation simulation, long start) {
+		try {
+			simulation.checkpoint(System.nanoTime() - start, needles, precision, confidence).write(checkpoint);
+		} catch (IOException e) {
+			System.err.println("Could not write checkpoint: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Prints the current estimate of the given engine.
+	 *
+	 * @param engine  the engine
+	 * @param seconds the time elapsed since the start of the run
+	 * @param last    true if this is the final estimate
+	 */
+	private void print(SimulationEngine engine, double seconds, boolean last) {
+		Convergence c = engine.getConvergence(confidence);
+		String pi = number(c.getPI());
+		String lower = number(c.getLower());
+		String upper = number(c.getUpper());
+		String toHalve = c.getNeedlesFor(c.getHalfWidth() / 2) == Long.MAX_VALUE ? number(-1)
+				: Long.toString(c.getNeedlesFor(c.getHalfWidth() / 2));
+
+		if (json) {
+			out.printf(Locale.ROOT, "{\"needles\":%d,\"hits\":%d,\"pi\":%s,\"ci_lower\":%s,\"ci_upper\":%s,"
+							+ "\"needles_to_halve\":%s,\"seconds\":%.3f,\"final\":%b}%n",
+					c.getThrownCount(), engine.getHitCount(), pi, lower, upper, toHalve, seconds, last);
+		} else {
+			out.printf(Locale.ROOT, "%d,%d,%s,%s,%s,%s,%.3f,%b%n",
+					c.getThrownCount(), engine.getHitCount(), pi, lower, upper, toHalve, seconds, last);
+		}
+	}
+
+	/**
+	 * Formats the given value for the output; unknown values are printed
+	 * as {@code null} in JSON and as empty fields in CSV.
+	 *
+	 * @param value the value to format
+	 * @return the formatted value
+	 */
+	private String number(double value) {
+		if (value < 0 || Double.isInfinite(value) || Double.isNaN(value)) {
+			return json ? "null" : "";
+		}
+		return Double.toString(value);
+	}
+
+	/**
+	 * Parses the command line arguments.
+	 *
+	 * @param args the command line arguments
+	 * @throws IllegalArgumentException if the arguments are invalid
+	 */
+	private void parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("missing value for " + option);
+			}
+			String value = args[++i];
+
+			try {
+				switch (option) {
+					case "--needles":
+						needles = Long.parseLong(value);
+						break;
+					case "--strips":
+						strips = Integer.parseInt(value);
+						break;
+					case "--length-factor":
+						lengthFactor = Double.parseDouble(value);
+						break;
+					case "--seed":
+						seed = Long.parseLong(value);
+						break;
+					case "--threads":
+						threads = Integer.parseInt(value);
+						break;
+					case "--generator":
+						generator = RandomType.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--sampling":
+						sampling = SamplingMode.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--kernel":
+						kernel = KernelType.valueOf(value.toUpperCase(Locale.ROOT));
+						break;
+					case "--report-every":
+						reportEvery = Long.parseLong(value);
+						break;
+					case "--confidence":
+						confidence = Double.parseDouble(value);
+						break;
+					case "--precision":
+						precision = Double.parseDouble(value);
+						break;
+					case "--format":
+						if (!value.equals("csv") && !value.equals("json")) {
+							throw new IllegalArgumentException("unknown format " + value);
+						}
+						json = value.equals("json");
+						break;
+					case "--checkpoint":
+						checkpoint = Paths.get(value);
+						break;
+					case "--checkpoint-every":
+						checkpointEvery = Long.parseLong(value);
+						break;
+					case "--resume":
+						resume = Paths.get(value);
+						break;
+					default:
+						throw new IllegalArgumentException("unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid value for " + option + ": " + value);
+			}
+		}
+
+		if (precision < 0) throw new IllegalArgumentException("--precision must be positive");
+		if (needles < 0 && precision > 0) needles = Long.MAX_VALUE;
+		if (needles < 0 && resume == null) {
+			throw new IllegalArgumentException("--needles, --precision or --resume must be given");
+		}
+		if (strips < 1) throw new IllegalArgumentException("--strips must be positive");
+		if (lengthFactor < 0 || lengthFactor > 1) throw new IllegalArgumentException("--length-factor must be in [0, 1]");
+		if (threads < 1 || threads > ParallelSimulation.MAX_THREADS) {
+			throw new IllegalArgumentException("--threads must be between 1 and " + ParallelSimulation.MAX_THREADS);
+		}
+		if (!(confidence > 0 && confidence < 1)) throw new IllegalArgumentException("--confidence must be in (0, 1)");
+		if (reportEvery < 0) throw new IllegalArgumentException("--report-every must be non-negative");
+		if (checkpointEvery < 1) throw new IllegalArgumentException("--checkpoint-every must be positive");
+		if (checkpoint != null && !sampling.isResumable()) {
+			throw new IllegalArgumentException("--checkpoint cannot be used with --sampling "
+					+ sampling.name().toLowerCase(Locale.ROOT) + ", whose runs cannot be resumed");
+		}
+		if (checkpoint != null && !kernel.isResumable()) {
+			throw new IllegalArgumentException("--checkpoint cannot be used with --kernel "
+					+ kernel.name().toLowerCase(Locale.ROOT) + ", whose runs cannot be resumed");
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package buffon.components.canvas;
+
+import java.awt.AlphaComposite;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * A copy of a software image kept in a {@link VolatileImage}, so that
+ * Java2D can hold it in video memory and paint it with an accelerated
+ * blit, instead of copying it from the system memory on every paint.
+ * <p>
+ * The software image stays the master copy: the needles are drawn into
+ * it, and only the regions which changed since the last paint are
+ * uploaded to the volatile image, as marked by {@link #invalidate}.
+ * If the volatile image loses its contents (e.g. when the display mode
+ * changes), it is restored from the software image as a whole.
+ * <p>
+ * On headless or software-only pipelines, where a volatile image would
+ * only add a copy, the buffer turns itself off and {@link #paint}
+ * returns false, so that the caller paints the software image directly.
+ * <p>
+ * Not thread-safe; the caller must guard the image.
+ */
+public class AcceleratedBuffer {
+
+	/**
+	 * The maximum number of attempts at painting the buffer, if it
+	 * keeps losing its contents.
+	 */
+	private static final int MAX_ATTEMPTS = 3;
+
+	/**
+	 * The component the buffer is painted onto.
+	 */
+	private final Component component;
+
+	/**
+	 * The volatile image; {@code null} if not created yet.
+	 */
+	private VolatileImage buffer;
+
+	/**
+	 * The region of the volatile image which differs from the software
+	 * image; {@code null} if none.
+	 */
+	private Rectangle stale;
+
+	/**
+	 * Whether the volatile image is known not to be accelerated.
+	 */
+	private boolean unsupported = GraphicsEnvironment.isHeadless();
+
+	/**
+	 * Creates a new accelerated buffer.
+	 *
+	 * @param component the component the buffer is painted onto
+	 */
+	public AcceleratedBuffer(Component component) {
+		this.component = component;
+	}
+
+	/**
+	 * Marks the given region of the software image as changed, to be
+	 * uploaded before the next paint.
+	 *
+	 * @param region the region which changed
+	 */
+	public void invalidate(Rectangle region) {
+		if (stale == null) {
+			stale = new Rectangle(region);
+		} else {
+			stale.add(region);
+		}
+	}
+
+	/**
+	 * Marks the whole software image as changed.
+	 */
+	public void invalidate() {
+		stale = new Rectangle(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Paints the given rectangle of the software image through the
+	 * volatile image, uploading the changed regions first.
+	 *
+	 * @param g     the graphics to paint onto
+	 * @param image the software image
+	 * @param x1    the left edge of the rectangle
+	 * @param y1    the top edge of the rectangle
+	 * @param x2    the right edge of the rectangle, exclusive
+	 * @param y2    the bottom edge of the rectangle, exclusive
+	 * @return true if painted; false if the buffer is not available,
+	 * and the software image should be painted directly
+	 */
+	public boolean paint(Graphics g, BufferedImage image, int x1, int y1, int x2, int y2) {
+		if (unsupported) return false;
+		GraphicsConfiguration gc = component.getGraphicsConfiguration();
+		if (gc == null) return false;
+
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			if (buffer == null || buffer.getWidth() != image.getWidth() || buffer.getHeight() != image.getHeight()) {
+				if (!create(gc, image.getWidth(), image.getHeight())) return false;
+			}
+
+			int status = buffer.validate(gc);
+			if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				// e.g. moved to another screen
+				flush();
+				continue;
+			} else if (status == VolatileImage.IMAGE_RESTORED) {
+				invalidate();
+			}
+
+			if (stale != null) upload(image);
+			g.drawImage(buffer, x1, y1, x2, y2, x1, y1, x2, y2, null);
+			if (!buffer.contentsLost()) return true;
+
+			invalidate();
+		}
+		return false;
+	}
+
+	/**
+	 * Releases the video memory of the buffer. It is recreated on the
+	 * next paint, if needed.
+	 */
+	public void flush() {
+		if (buffer != null) {
+			buffer.flush();
+			buffer = null;
+		}
+		invalidate();
+	}
+
+	/**
+	 * Creates the volatile image, marking the buffer as unsupported if
+	 * it cannot be accelerated.
+	 *
+	 * @param gc     the graphics configuration of the component
+	 * @param width  the width of the image
+	 * @param height the height of the image
+	 * @return true if created
+	 */
+	private boolean create(GraphicsConfiguration gc, int width, int height) {
+		flush();
+		buffer = gc.createCompatibleVolatileImage(width, height);
+		if (buffer == null || !buffer.getCapabilities().isAccelerated()) {
+			// a software pipeline; the buffer would only add a copy
+			flush();
+			unsupported = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Copies the stale region of the software image onto the volatile image.
+	 *
+	 * @param image the software image
+	 */
+	private void upload(BufferedImage image) {
+		Rectangle region = stale.intersection(new Rectangle(image.getWidth(), image.getHeight()));
+		stale = null;
+		if (region.isEmpty()) return;
+
+		Graphics2D g2d = buffer.createGraphics();
+		try {
+			g2d.setComposite(AlphaComposite.Src);
+			int x2 = region.x + region.width;
+			int y2 = region.y + region.height;
+			g2d.drawImage(image, region.x, region.y, x2, y2, region.x, region.y, x2, y2, null);
+		} finally {
+			g2d.dispose();
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package buffon.components.canvas;
+
+import buffon.engine.SimulationEngine;
+import buffon.model.NeedleBatch;
+
+import javax.swing.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs the animation of the canvas. The needles are produced on a
+ * background thread, at a given rate (in needles per second), and
+ * are drawn onto the canvas by a render timer, capped at
+ * {@link #FPS} frames per second, which draws all the needles
+ * produced since the last frame in one pass.
+ * <p>
+ * The simulation rate is therefore independent of the paint rate.
+ * The needles travel from the producer to the renderer in a fixed
+ * pool of batches; if the renderer falls behind, the producer waits
+ * for a free batch, so neither the memory nor the time spent on the
+ * event dispatch thread grow with the simulation rate.
+ * <p>
+ * In the {@link RenderMode#HEATMAP} mode, where a needle costs a single
+ * increment instead of a line, the needles are produced on all cores
+ * at once. Every producer counts its needles in its own
+ * {@link DensityCounts}, without taking the canvas' image lock, and the
+ * render timer adds all the counts to the canvas and to the engine once
+ * per frame.
+ */
+public class AnimationLoop {
+
+	/**
+	 * The maximum number of frames per second.
+	 */
+	public static final int FPS = 60;
+
+	/**
+	 * The maximum number of needles produced at once.
+	 */
+	private static final int BATCH_SIZE = 1024;
+
+	/**
+	 * The number of batches in the pool.
+	 */
+	private static final int POOL_SIZE = 8;
+
+	/**
+	 * The maximum time spent drawing in a single frame, in nanoseconds.
+	 */
+	private static final long RENDER_BUDGET_NANOS = 1_000_000_000L / FPS * 3 / 4;
+
+	/**
+	 * The canvas to draw upon.
+	 */
+	private Canvas canvas;
+
+	/**
+	 * The batches ready to be filled by the producer.
+	 */
+	private BlockingQueue<NeedleBatch> free = new ArrayBlockingQueue<>(POOL_SIZE);
+
+	/**
+	 * The batches ready to be drawn by the renderer.
+	 */
+	private BlockingQueue<NeedleBatch> full = new ArrayBlockingQueue<>(POOL_SIZE);
+
+	/**
+	 * The timer drawing the produced needles.
+	 */
+	private Timer renderer = new Timer(1000 / FPS, e -> render());
+
+	/**
+	 * The threads producing the needles; {@code null} if stopped.
+	 */
+	private Thread[] producers;
+
+	/**
+	 * The counts of the producers in the {@link RenderMode#HEATMAP} mode;
+	 * empty in the other modes.
+	 */
+	private DensityCounts[] counts = new DensityCounts[0];
+
+	/**
+	 * The simulation rate, in needles per second.
+	 */
+	private volatile double rate = 1;
+
+	/**
+	 * Creates a new animation loop.
+	 *
+	 * @param canvas the canvas to draw upon
+	 */
+	public AnimationLoop(Canvas canvas) {
+		this.canvas = canvas;
+		for (int i = 0; i < POOL_SIZE; i++) {
+			free.add(new NeedleBatch(BATCH_SIZE));
+		}
+	}
+
+	/**
+	 * Starts the animation. Must be called on the event dispatch thread.
+	 */
+	public void start() {
+		if (producers != null) return;
+
+		SimulationEngine engine = canvas.getEngine();
+		boolean direct = canvas.getRenderMode() == RenderMode.HEATMAP;
+		int count = direct ? Runtime.getRuntime().availableProcessors() : 1;
+
+		producers = new Thread[count];
+		counts = new DensityCounts[direct ? count : 0];
+		for (int i = 0; i < count; i++) {
+			SimulationEngine local = new SimulationEngine(engine, engine.getRandom().split());
+			double share = 1.0 / count;
+			DensityCounts own = direct ? new DensityCounts() : null;
+			if (direct) counts[i] = own;
+			producers[i] = new Thread(direct ? () -> produceDirect(local, own, share) : () -> produce(local),
+					"needle-producer");
+			producers[i].setDaemon(true);
+			producers[i].start();
+		}
+		renderer.start();
+	}
+
+	/**
+	 * Stops the animation. The needles which have already been produced
+	 * are either drawn or discarded; those counted by the producers of
+	 * the {@link RenderMode#HEATMAP} mode are always added. Must be
+	 * called on the event dispatch thread.
+	 *
+	 * @param draw true to draw the produced needles; false to discard them
+	 */
+	public void stop(boolean draw) {
+		if (producers == null) return;
+
+		for (Thread producer : producers) {
+			producer.interrupt();
+		}
+		try {
+			for (Thread producer : producers) {
+				producer.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		producers = null;
+		renderer.stop();
+
+		if (draw) {
+			render(false);
+		} else {
+			full.drainTo(free);
+			drainCounts();
+		}
+		counts = new DensityCounts[0];
+	}
+
+	/**
+	 * Checks whether the animation is running.
+	 *
+	 * @return true if the animation is running
+	 */
+	public boolean isRunning() {
+		return producers != null;
+	}
+
+	/**
+	 * Sets the simulation rate.
+	 *
+	 * @param rate the number of needles thrown per second
+	 */
+	public void setRate(double rate) {
+		if (!(rate > 0)) throw new IllegalArgumentException();
+		this.rate = rate;
+	}
+
+	/**
+	 * Produces the needles at the current rate, until interrupted.
+	 *
+	 * @param local the producer's own copy of the engine
+	 */
+	private void produce(SimulationEngine local) {
+		produce(1, size -> {
+			NeedleBatch batch = free.take();
+			local.generateBatch(batch, size);
+			local.scoreBatch(batch);
+			full.put(batch);
+		});
+	}
+
+	/**
+	 * Produces the needles at the given share of the current rate, until
+	 * interrupted, counting them in the producer's own counts.
+	 *
+	 * @param local  the producer's own copy of the engine
+	 * @param counts the producer's own counts
+	 * @param share  the share of the rate produced by this producer
+	 */
+	private void produceDirect(SimulationEngine local, DensityCounts counts, double share) {
+		NeedleBatch batch = new NeedleBatch(BATCH_SIZE);
+		produce(share, size -> {
+			// the heatmap does not use the colors
+			local.generateBatch(batch, size, false);
+			counts.accumulate(batch, local.scoreBatch(batch), canvas.getHeatmap());
+		});
+	}
+
+	/**
+	 * Produces batches of needles at the given share of the current
+	 * rate, until interrupted.
+	 *
+	 * @param share the share of the rate produced
+	 * @param step  produces a batch of the given size
+	 */
+	private void produce(double share, BatchStep step) {
+		double currentRate = rate;
+		long epoch = System.nanoTime();
+		long produced = 0;
+
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				if (rate != currentRate) {
+					currentRate = rate;
+					epoch = System.nanoTime();
+					produced = 0;
+				}
+
+				long now = System.nanoTime();
+				long due = (long) ((now - epoch) / 1e9 * currentRate * share) - produced;
+				if (due <= 0) {
+					// sleep until the next needle is due, but at most for a frame
+					long nanos = Math.min((long) (1e9 / (currentRate * share)), 1_000_000_000L / FPS);
+					Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+					continue;
+				}
+				if (due > (long) BATCH_SIZE * POOL_SIZE) {
+					// fell behind (the renderer is slower than the rate); do not catch up
+					epoch = now;
+					produced = 0;
+					due = BATCH_SIZE;
+				}
+
+				int size = (int) Math.min(due, BATCH_SIZE);
+				step.produce(size);
+				produced += size;
+			}
+		} catch (InterruptedException ignorable) {
+		}
+	}
+
+	/**
+	 * Draws the needles produced since the last frame, within the
+	 * time budget of a single frame.
+	 */
+	private void render() {
+		render(true);
+	}
+
+	/**
+	 * Draws the produced needles and adds the counted ones, merges
+	 * their values into the canvas' engine and repaints the parts of
+	 * the canvas drawn upon.
+	 *
+	 * @param budgeted true to stop drawing once the time budget of
+	 *                 a single frame is spent; false to draw all
+	 *                 produced needles
+	 */
+	private void render(boolean budgeted) {
+		long start = System.nanoTime();
+		drainCounts();
+
+		NeedleBatch batch;
+		while ((batch = full.poll()) != null) {
+			int hits = 0;
+			for (int i = 0, n = batch.getSize(); i < n; i++) {
+				if (batch.hit[i]) hits++;
+			}
+			canvas.drawBatch(batch, hits);
+
+			free.add(batch);
+			if (budgeted && System.nanoTime() - start > RENDER_BUDGET_NANOS) break;
+		}
+
+		canvas.repaintDrawn();
+	}
+
+	/**
+	 * Adds the needles counted by the producers of the
+	 * {@link RenderMode#HEATMAP} mode to the canvas.
+	 */
+	private void drainCounts() {
+		for (DensityCounts c : counts) {
+			canvas.drawCounts(c);
+		}
+	}
+
+	/**
+	 * A step of a producer.
+	 */
+	private interface BatchStep {
+
+		/**
+		 * Produces a batch of needles.
+		 *
+		 * @param size the number of needles
+		 * @throws InterruptedException if interrupted while waiting
+		 */
+		void produce(int size) throws InterruptedException;
+	}
+}
@@ -0,0 +1,798 @@
+package buffon.components.canvas;
+
+import buffon.components.canvas.update.IUpdateListener;
+import buffon.components.canvas.update.IUpdateProvider;
+import buffon.components.canvas.update.UpdateNotifier;
+import buffon.components.canvas.update.UpdateSnapshot;
+import buffon.dialog.options.OptionsProvider;
+import buffon.engine.Checkpoint;
+import buffon.engine.Estimate;
+import buffon.engine.SimulationEngine;
+import buffon.model.NeedleBatch;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A canvas for running and displaying the animation. The needles
+ * are generated and scored by the {@link SimulationEngine}; the
+ * canvas merely observes the engine and draws the thrown needles.
+ */
+public class Canvas extends JComponent implements IUpdateProvider {
+
+	/**
+	 * The simulation engine which throws the needles.
+	 */
+	private SimulationEngine engine = new SimulationEngine();
+
+	/**
+	 * The image object holding the graphical context of the canvas.
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The graphics object, representing the graphics of the {@link #image}.
+	 */
+	private Graphics2D g2d;
+
+	/**
+	 * The lock guarding the {@link #image}, which is drawn upon from
+	 * the {@link NeedleThrower}'s background thread as well.
+	 */
+	private final Object imageLock = new Object();
+
+	/**
+	 * The rasterizer drawing the needles straight into the {@link #image},
+	 * on several threads.
+	 */
+	private TiledRasterizer rasterizer;
+
+	/**
+	 * The heatmap of the needles shown on the {@link #image} in the
+	 * {@link RenderMode#HEATMAP} mode. Replaced while holding the
+	 * {@link #imageLock}, but read by the animation's producers
+	 * without it.
+	 */
+	private volatile DensityHeatmap heatmap;
+
+	/**
+	 * The way the needles are displayed.
+	 */
+	private RenderMode renderMode = RenderMode.NEEDLES;
+
+	/**
+	 * The name of the property fired when the {@link #renderMode} changes,
+	 * either set or restored from a saved session.
+	 */
+	public static final String RENDER_MODE_PROPERTY = "renderMode";
+
+	/**
+	 * The copy of the {@link #image} kept in video memory, if possible.
+	 */
+	private AcceleratedBuffer buffer = new AcceleratedBuffer(this);
+
+	/**
+	 * Whether the canvas is painted through the {@link #buffer}.
+	 */
+	private boolean accelerated = true;
+
+	/**
+	 * The background color of the canvas.
+	 */
+	private Color backgroundColor = new Color(225, 225, 225);
+
+	/**
+	 * The maximum simulation rate of the animation, in needles per second.
+	 */
+	private static final double MAX_RATE = 10_000_000;
+
+	/**
+	 * The loop running the animation.
+	 */
+	private AnimationLoop animator = new AnimationLoop(this);
+
+	/**
+	 * The thrower for throwing a bunch of needles onto the canvas at once.
+	 */
+	private NeedleThrower thrower = new NeedleThrower(this);
+
+	/**
+	 * The notifier of the update listeners, coalescing the notifications.
+	 */
+	private UpdateNotifier notifier = new UpdateNotifier(this::createSnapshot);
+
+	/**
+	 * The snapshot passed to the update listeners last time.
+	 */
+	private UpdateSnapshot lastSnapshot = new UpdateSnapshot(0, 0, -1, 0, Double.POSITIVE_INFINITY);
+
+	/**
+	 * The confidence level of the interval passed to the update listeners.
+	 */
+	private static final double CONFIDENCE = 0.95;
+
+	/**
+	 * The time the {@link #lastSnapshot} was taken, in nanoseconds.
+	 */
+	private long lastSnapshotTime = System.nanoTime();
+
+	/**
+	 * The timer saving the checkpoints, on the Event Dispatch Thread,
+	 * while needles are being thrown.
+	 */
+	private Timer checkpointTimer = new Timer(0, e -> {
+		saveCheckpoint();
+		updateCheckpointTimer();
+	});
+
+	/**
+	 * The background thread writing the checkpoints to the disk.
+	 */
+	private ExecutorService checkpointWriter = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "checkpoint-writer");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * The number of needles thrown as of the last saved checkpoint.
+	 */
+	private long checkpointThrown;
+
+	/**
+	 * The time the simulation has started at, in nanoseconds, shifted
+	 * back by the time spent before it was resumed.
+	 */
+	private long simulationStart = System.nanoTime();
+
+
+	/**
+	 * Creates a new drawing canvas.
+	 */
+	public Canvas() {
+		setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
+		thrower.addPropertyChangeListener(e -> {
+			if (!"throwing".equals(e.getPropertyName())) return;
+			updateCheckpointTimer();
+			if (!thrower.isThrowing()) saveCheckpoint();
+		});
+	}
+
+	/**
+	 * Plays the animation. If the animation is already playing,
+	 * invoking will have no effect; otherwise the animation will
+	 * either continue playing if previously paused or start a
+	 * new animation if previously stopped.
+	 */
+	public void play() {
+		if (animator.isRunning()) return;
+		if (image == null) init();
+		animator.start();
+		updateCheckpointTimer();
+	}
+
+	/**
+	 * Pauses the animation, causing no more needles to be
+	 * generated, until the {@link #play()} method is called
+	 * upon.
+	 */
+	public void pause() {
+		animator.stop(true);
+		updateCheckpointTimer();
+		saveCheckpoint();
+	}
+
+	/**
+	 * Stops the animation, causing the deletion of any previous
+	 * contents that were on the drawing canvas.
+	 */
+	public void stop() {
+		pause();
+		resetContext();
+	}
+
+	/**
+	 * Clears the canvas and resets the simulator values.
+	 */
+	public void resetContext() {
+		boolean running = animator.isRunning();
+		animator.stop(false);
+		thrower.cancel();
+
+		clearImage();
+		resetSimulatorValues();
+		repaint();
+
+		if (running) animator.start();
+	}
+
+	/**
+	 * Resets the current simulator values to their default values.
+	 */
+	private void resetSimulatorValues() {
+		engine.reset();
+		simulationStart = System.nanoTime();
+	}
+
+	/**
+	 * Saves the simulation periodically while the animation is playing or
+	 * needles are being thrown, every {@link OptionsProvider#CHECKPOINT_INTERVAL}
+	 * seconds unless that is 0, and stops the periodic saves otherwise.
+	 * Must be called on the Event Dispatch Thread, and again whenever
+	 * the interval option changes.
+	 */
+	public void updateCheckpointTimer() {
+		int interval = (int) OptionsProvider.getOption(OptionsProvider.CHECKPOINT_INTERVAL).getValue();
+		if (interval <= 0 || !(animator.isRunning() || thrower.isThrowing())) {
+			checkpointTimer.stop();
+			return;
+		}
+		if (checkpointTimer.isRunning() && checkpointTimer.getDelay() == interval * 1000) return;
+
+		checkpointTimer.setDelay(interval * 1000);
+		checkpointTimer.setInitialDelay(interval * 1000);
+		checkpointTimer.restart();
+	}
+
+	/**
+	 * Returns the file the simulation is saved to, as a {@link CanvasSession},
+	 * set by the {@link OptionsProvider#CHECKPOINT_FILE} option.
+	 *
+	 * @return the checkpoint file
+	 */
+	public static Path getCheckpointFile() {
+		return Paths.get((String) OptionsProvider.getOption(OptionsProvider.CHECKPOINT_FILE).getValue());
+	}
+
+	/**
+	 * Saves the simulation and the canvas image to the
+	 * {@linkplain #getCheckpointFile() checkpoint file}, unless no needles
+	 * have been thrown since the last save or the canvas has been
+	 * {@linkplain #close() closed}. The counters
+	 * and the pixels are copied here, on the Event Dispatch Thread which
+	 * merges the counters, and the file is compressed and written in the
+	 * background.
+	 * <p>
+	 * A new simulation does not overwrite the last save until it throws
+	 * its first needles, so a simulation which has been stopped by
+	 * accident can still be resumed.
+	 */
+	public void saveCheckpoint() {
+		if (checkpointWriter.isShutdown()) return;
+		CanvasSession session = createSession();
+		if (session == null) return;
+
+		Path file = getCheckpointFile();
+		checkpointWriter.execute(() -> writeSession(session, file));
+	}
+
+	/**
+	 * Saves the simulation and the canvas image, like {@link #saveCheckpoint()},
+	 * and waits for all the saves to be written. The animation and the
+	 * thrower are stopped and the render threads released; the canvas
+	 * can neither be saved nor drawn upon afterwards. Meant to be called
+	 * when the application is closing.
+	 */
+	public void close() {
+		checkpointTimer.stop();
+		animator.stop(false);
+		thrower.cancel();
+		CanvasSession session = createSession();
+		synchronized (imageLock) {
+			if (rasterizer != null) rasterizer.shutdown();
+		}
+		checkpointWriter.shutdown();
+		try {
+			checkpointWriter.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (session != null) writeSession(session, getCheckpointFile());
+	}
+
+	/**
+	 * Copies the current state of the simulation and of the canvas image.
+	 *
+	 * @return the session, or {@code null} if no needles have been thrown
+	 * since the last save
+	 */
+	private CanvasSession createSession() {
+		synchronized (imageLock) {
+			long thrown = engine.getThrownCount();
+			if (thrown == 0 || thrown == checkpointThrown || image == null) return null;
+			checkpointThrown = thrown;
+
+			// the generator may be in use by the animation's producer; any state it is read in is valid
+			Checkpoint checkpoint = Checkpoint.of(engine, System.nanoTime() - simulationStart, 0);
+			int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData().clone();
+			int[] counts = renderMode == RenderMode.HEATMAP ? heatmap.getCounts() : null;
+			return new CanvasSession(checkpoint, image.getWidth(), image.getHeight(), pixels, renderMode, counts);
+		}
+	}
+
+	/**
+	 * Writes the given session to the given file, reporting
+	 * a failure to the standard error.
+	 *
+	 * @param session the session
+	 * @param file    the file
+	 */
+	private void writeSession(CanvasSession session, Path file) {
+		try {
+			session.write(file);
+		} catch (IOException e) {
+			System.err.println("Could not write checkpoint: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Resumes the simulation from the {@linkplain #getCheckpointFile() checkpoint file},
+	 * replacing the current simulation. The simulator values, the generator and the
+	 * options of the simulation are restored, and so are the render mode
+	 * and the canvas image, scaled if the canvas has been resized since.
+	 * A heatmap cannot be scaled, so it starts over then. Plain checkpoints, e.g.
+	 * of batch runs, can be resumed as well, without their parallel
+	 * workers; the canvas is cleared then. Checkpoints of runs which
+	 * cannot be resumed (see {@link Checkpoint#checkResumable()}) are
+	 * rejected before the current simulation is touched.
+	 *
+	 * @throws NoSuchFileException if there is no checkpoint file
+	 * @throws IOException         if the checkpoint cannot be read or resumed
+	 */
+	public void resume() throws IOException {
+		Path file = getCheckpointFile();
+		if (!Files.exists(file)) throw new NoSuchFileException(file.toString());
+
+		CanvasSession session;
+		Checkpoint checkpoint;
+		try {
+			session = CanvasSession.read(file);
+			checkpoint = session.getCheckpoint();
+		} catch (IOException e) {
+			session = null;
+			checkpoint = Checkpoint.read(file);
+		}
+		checkpoint.checkResumable();
+
+		boolean running = animator.isRunning();
+		animator.stop(false);
+		thrower.cancel();
+
+		if (image == null) init();
+		restore(checkpoint, session);
+		repaint();
+
+		if (running) animator.start();
+	}
+
+	/**
+	 * Restores the given checkpoint and, if given, the image of the
+	 * session.
+	 *
+	 * @param checkpoint the checkpoint
+	 * @param session    the session holding the image, or {@code null}
+	 * @throws IOException if the restored options cannot be saved
+	 */
+	private void restore(Checkpoint checkpoint, CanvasSession session) throws IOException {
+		OptionsProvider.setOption(OptionsProvider.NUMBER_OF_STRIPS, checkpoint.getStrips());
+		OptionsProvider.setOption(OptionsProvider.LENGTH_FACTOR, checkpoint.getLengthFactor());
+		OptionsProvider.saveOptions();
+
+		RenderMode oldMode = renderMode;
+		synchronized (imageLock) {
+			clearImage();
+			if (session != null) {
+				renderMode = session.getRenderMode();
+				if (renderMode != RenderMode.HEATMAP) {
+					drawSessionImage(session);
+				} else if (session.getWidth() == image.getWidth() && session.getHeight() == image.getHeight()) {
+					drawSessionImage(session);
+					heatmap.setCounts(session.getCounts());
+				}
+			}
+		}
+		firePropertyChange(RENDER_MODE_PROPERTY, oldMode, renderMode);
+
+		engine.setSamplingMode(checkpoint.getSamplingMode());
+		engine.setKernelType(checkpoint.getKernelType());
+		engine.setRandom(checkpoint.createRandom());
+		engine.restore(checkpoint.getCounts());
+		checkpointThrown = checkpoint.getThrownCount();
+		simulationStart = System.nanoTime() - checkpoint.getElapsedNanos();
+	}
+
+	/**
+	 * Draws the saved image of the given session onto the canvas image,
+	 * copying the pixels directly if the sizes match and scaling it
+	 * otherwise.
+	 *
+	 * @param session the session
+	 */
+	private void drawSessionImage(CanvasSession session) {
+		if (session.getWidth() == image.getWidth() && session.getHeight() == image.getHeight()) {
+			int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			System.arraycopy(session.getPixels(), 0, pixels, 0, pixels.length);
+			return;
+		}
+
+		BufferedImage saved = new BufferedImage(session.getWidth(), session.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		saved.setRGB(0, 0, session.getWidth(), session.getHeight(), session.getPixels(), 0, session.getWidth());
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g2d.drawImage(saved, 0, 0, image.getWidth(), image.getHeight(), null);
+	}
+
+	/**
+	 * Sets the animation speed.
+	 * <p>
+	 * The speed is mapped exponentially onto the simulation rate: the
+	 * slowest speed (0.0) throws one needle per second and the fastest
+	 * speed (1.0) throws {@link #MAX_RATE} needles per second, or as
+	 * many as can be drawn, if that is fewer. The canvas is repainted
+	 * at most {@link AnimationLoop#FPS} times per second, regardless
+	 * of the speed.
+	 *
+	 * @param speed the animation speed, from the interval [0.0, 1.0]
+	 */
+	public void setSpeed(double speed) {
+		if (speed < 0 || speed > 1.0) {
+			throw new IllegalArgumentException();
+		}
+		animator.setRate(Math.pow(MAX_RATE, speed));
+	}
+
+	/**
+	 * Sets whether the canvas is painted through a copy of its image
+	 * kept in video memory, which makes painting cheaper on pipelines
+	 * supporting it. Has no effect on headless or software pipelines.
+	 *
+	 * @param accelerated true to paint through the video memory copy;
+	 *                    false to paint the image directly
+	 */
+	public void setAccelerated(boolean accelerated) {
+		synchronized (imageLock) {
+			this.accelerated = accelerated;
+			buffer.flush();
+		}
+		repaint();
+	}
+
+	/**
+	 * Checks whether the canvas is painted through a copy of its image
+	 * kept in video memory, if supported.
+	 *
+	 * @return true if accelerated
+	 */
+	public boolean isAccelerated() {
+		return accelerated;
+	}
+
+	/**
+	 * Sets the way the needles are displayed. The canvas is cleared,
+	 * but the simulation goes on. Fires a {@link #RENDER_MODE_PROPERTY}
+	 * property change.
+	 *
+	 * @param renderMode the render mode
+	 */
+	public void setRenderMode(RenderMode renderMode) {
+		RenderMode oldMode = this.renderMode;
+		if (renderMode == oldMode) return;
+
+		// the animation produces the needles differently in each mode
+		boolean running = animator.isRunning();
+		animator.stop(true);
+
+		synchronized (imageLock) {
+			this.renderMode = renderMode;
+			if (image != null) clearImage();
+		}
+		firePropertyChange(RENDER_MODE_PROPERTY, oldMode, renderMode);
+		repaint();
+
+		if (running) animator.start();
+	}
+
+	/**
+	 * Returns the way the needles are displayed.
+	 *
+	 * @return the render mode
+	 */
+	public RenderMode getRenderMode() {
+		return renderMode;
+	}
+
+	/**
+	 * Throws the given number of needles onto the canvas, at once.
+	 *
+	 * @param count the number of needles to throw onto the canvas
+	 */
+	public void throwNeedles(long count) {
+		if (image == null) init();
+
+		thrower.setN(count);
+		thrower.start();
+	}
+
+	/**
+	 * Returns the thrower used for throwing a bunch of needles
+	 * onto the canvas at once.
+	 *
+	 * @return the needle thrower
+	 */
+	public NeedleThrower getThrower() {
+		return thrower;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		if (image == null) init();
+
+		// only copy the part of the image to be repainted
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) clip = new Rectangle(getWidth(), getHeight());
+		Rectangle drawn;
+		synchronized (imageLock) {
+			drawn = takeDrawnRegion();
+
+			int x1 = Math.max(0, clip.x);
+			int y1 = Math.max(0, clip.y);
+			int x2 = Math.min(image.getWidth(), clip.x + clip.width);
+			int y2 = Math.min(image.getHeight(), clip.y + clip.height);
+			if (x1 < x2 && y1 < y2 && !(accelerated && buffer.paint(g, image, x1, y1, x2, y2))) {
+				g.drawImage(image, x1, y1, x2, y2, x1, y1, x2, y2, null);
+			}
+		}
+		// needles drawn since the last frame, outside of this paint
+		if (drawn != null && !clip.contains(drawn)) repaint(drawn);
+		notifyListeners();
+	}
+
+	/**
+	 * Draws all needles of the given batch onto the canvas image,
+	 * without repainting the canvas, and merges their values into the
+	 * canvas' engine. Both happen under the image lock, so a checkpoint
+	 * never holds the needles without their counts, or the other way
+	 * round. May be called from any thread.
+	 *
+	 * @param batch the batch of needles to draw
+	 * @param hits  the number of needles of the batch crossing a line
+	 */
+	public void drawBatch(NeedleBatch batch, int hits) {
+		synchronized (imageLock) {
+			if (image != null) {
+				if (renderMode == RenderMode.HEATMAP) {
+					heatmap.accumulate(batch);
+				} else {
+					rasterizer.draw(batch);
+				}
+			}
+			engine.merge(batch.getSize(), hits);
+		}
+	}
+
+	/**
+	 * Adds the needles counted by a producer to the heatmap and merges
+	 * their values into the canvas' engine, under the image lock, like
+	 * {@link #drawBatch(NeedleBatch, int)}. May be called from any thread.
+	 *
+	 * @param counts the counts of the producer
+	 */
+	void drawCounts(DensityCounts counts) {
+		synchronized (imageLock) {
+			counts.drainTo(image != null ? heatmap : null, engine);
+		}
+	}
+
+	/**
+	 * Repaints the parts of the canvas drawn upon since the last call.
+	 * May be called from any thread.
+	 */
+	public void repaintDrawn() {
+		Rectangle region;
+		synchronized (imageLock) {
+			if (image == null) return;
+			region = takeDrawnRegion();
+		}
+		if (region != null) repaint(region);
+	}
+
+	/**
+	 * Takes the region of the {@link #image} drawn upon since the last
+	 * call, coloring the new counts of the {@link #heatmap} first, and
+	 * marks it to be uploaded to the {@link #buffer}. Must be called
+	 * while holding the {@link #imageLock}.
+	 *
+	 * @return the region drawn upon; {@code null} if none
+	 */
+	private Rectangle takeDrawnRegion() {
+		Rectangle region = rasterizer.takeDirtyRegion();
+		Rectangle counted = heatmap.render();
+		if (region == null) {
+			region = counted;
+		} else if (counted != null) {
+			region.add(counted);
+		}
+		if (region != null) buffer.invalidate(region);
+		return region;
+	}
+
+	/**
+	 * Initializes the canvas and it's settings.
+	 */
+	private void init() {
+		synchronized (imageLock) {
+			image = new BufferedImage(this.getWidth(), this.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			g2d = image.createGraphics();
+			// anti-aliasing
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			// the old rasterizer's render threads would otherwise stay parked forever
+			if (rasterizer != null) rasterizer.shutdown();
+			rasterizer = new TiledRasterizer(image);
+			heatmap = new DensityHeatmap(image);
+
+			clearImage();
+			calculateNeedleLength();
+		}
+
+	}
+
+	/**
+	 * Clears the {@link #image} by removing all elements drawn
+	 * upon it and by restoring the default background color.
+	 */
+	private void clearImage() {
+		synchronized (imageLock) {
+			g2d.setBackground(backgroundColor);
+			g2d.clearRect(0, 0, image.getWidth(), image.getHeight());
+
+			g2d.setColor(Color.BLACK);
+			drawLines((int) OptionsProvider.getOption(OptionsProvider.NUMBER_OF_STRIPS).getValue() + 1);
+			heatmap.clear();
+			buffer.invalidate();
+		}
+	}
+
+	/**
+	 * Draws a specified number of equally placed lines and
+	 * updates the engine's geometry accordingly.
+	 *
+	 * @param n the number of lines to draw
+	 */
+	private void drawLines(int n) {
+		if (n < 2) throw new IllegalArgumentException();
+
+		double factor = (double) OptionsProvider.getOption(OptionsProvider.LENGTH_FACTOR).getValue();
+		engine.setGeometry(this.getWidth(), this.getHeight(), n - 1, factor);
+		double distance = engine.getDistance();
+
+		double currentDistance = 0;
+		for (int i = 0; i < n; i++) {
+			g2d.drawLine((int) currentDistance, 0, (int) currentDistance, this.getHeight());
+			currentDistance += distance;
+		}
+	}
+
+	/**
+	 * Calculates the length of the needle from the lengthFactor property.
+	 */
+	public void calculateNeedleLength() {
+		double factor = (double) OptionsProvider.getOption(OptionsProvider.LENGTH_FACTOR).getValue();
+		engine.setLengthFactor(factor);
+	}
+
+	/**
+	 * Returns the total number of needles which have been
+	 * thrown onto the canvas.
+	 *
+	 * @return the total number of needles thrown onto the
+	 * canvas
+	 */
+	public long getThrownCount() {
+		return engine.getThrownCount();
+	}
+
+	/**
+	 * Returns the number of needles which have landed
+	 * on one of the lines.
+	 *
+	 * @return the number of needles, landed on one of
+	 * the lines in the current animation cycle
+	 */
+	public long getHitCount() {
+		return engine.getHitCount();
+	}
+
+
+	/**
+	 * Returns the calculated value of π, rounded to the number
+	 * of decimal places wrapped inside OptionsProvider#getNoOfDigits.
+	 *
+	 * @return the value of π, rounded to a specific number of
+	 * digits.
+	 */
+	public String getPI() {
+		return getSnapshot().getPI((int) OptionsProvider.getOption(OptionsProvider.NUMBER_OF_DIGITS).getValue());
+	}
+
+	/**
+	 * Returns the simulation engine observed by this canvas.
+	 *
+	 * @return the simulation engine
+	 */
+	public SimulationEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Returns the heatmap of the needles, which is replaced whenever
+	 * the image is. May be called from any thread.
+	 *
+	 * @return the heatmap; {@code null} if the canvas has not been
+	 * initialized yet
+	 */
+	DensityHeatmap getHeatmap() {
+		return heatmap;
+	}
+
+	// IUpdateProvider methods
+
+	@Override
+	public void addUpdateListener(IUpdateListener listener) {
+		notifier.addListener(listener);
+	}
+
+	@Override
+	public void removeUpdateListener(IUpdateListener listener) {
+		notifier.removeListener(listener);
+	}
+
+	@Override
+	public void notifyListeners() {
+		notifier.requestUpdate();
+	}
+
+	@Override
+	public void setMaxUpdateRate(double maxRate) {
+		notifier.setMaxRate(maxRate);
+	}
+
+	@Override
+	public UpdateSnapshot getSnapshot() {
+		Estimate e = engine.getEstimate();
+		double halfWidth = engine.getConvergence(CONFIDENCE).getHalfWidth();
+		return new UpdateSnapshot(e.getThrownCount(), e.getHitCount(), e.getPI(), lastSnapshot.getRate(), halfWidth);
+	}
+
+	/**
+	 * Creates a new snapshot for the update listeners, computing the
+	 * simulation rate since the previous one.
+	 *
+	 * @return a new snapshot
+	 */
+	private UpdateSnapshot createSnapshot() {
+		long now = System.nanoTime();
+		Estimate e = engine.getEstimate();
+		double seconds = (now - lastSnapshotTime) / 1e9;
+		double rate = seconds > 0 ? Math.max(0, e.getThrownCount() - lastSnapshot.getThrownCount()) / seconds : 0;
+
+		double halfWidth = engine.getConvergence(CONFIDENCE).getHalfWidth();
+		lastSnapshot = new UpdateSnapshot(e.getThrownCount(), e.getHitCount(), e.getPI(), rate, halfWidth);
+		lastSnapshotTime = now;
+		return lastSnapshot;
+	}
+}
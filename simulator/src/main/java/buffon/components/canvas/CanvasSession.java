@@ -0,0 +1,276 @@
+package buffon.components.canvas;
+
+import buffon.engine.Checkpoint;
+import buffon.util.AtomicFile;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A saved visual session: a {@link Checkpoint} of the simulation,
+ * together with the pixels of the canvas image at the same moment, so
+ * that a resumed session shows the needles thrown before, without
+ * re-drawing them.
+ * <p>
+ * The file starts with the checkpoint, so it can also be resumed by
+ * {@link Checkpoint#read(Path)} (e.g. by a batch run), followed by the
+ * size of the image, the render mode and the ARGB pixels, compressed
+ * with Deflate together with the counts of the heatmap in the
+ * {@link RenderMode#HEATMAP} mode. Since most pixels repeat the
+ * background or a neighbour, the image usually shrinks to a fraction
+ * of its raw size. The file is written atomically. Sessions saved
+ * before the render mode was, which show the needles, can still be read.
+ */
+public class CanvasSession {
+
+	/**
+	 * The magic number preceding the image, in sessions without the
+	 * render mode ("BUFI").
+	 */
+	private static final int IMAGE_MAGIC = 0x42554649;
+
+	/**
+	 * The magic number preceding the image and the render mode ("BUFS").
+	 */
+	private static final int SESSION_MAGIC = 0x42554653;
+
+	/**
+	 * The size of the chunks the pixels are compressed in, in bytes.
+	 */
+	private static final int CHUNK = 1 << 16;
+
+	/**
+	 * The checkpoint of the simulation.
+	 */
+	private final Checkpoint checkpoint;
+
+	/**
+	 * The width of the image.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the image.
+	 */
+	private final int height;
+
+	/**
+	 * The ARGB pixels of the image, row by row; not copied.
+	 */
+	private final int[] pixels;
+
+	/**
+	 * The way the needles were displayed.
+	 */
+	private final RenderMode renderMode;
+
+	/**
+	 * The counts of the heatmap, row by row, in the
+	 * {@link RenderMode#HEATMAP} mode; {@code null} otherwise. Not copied.
+	 */
+	private final int[] counts;
+
+	/**
+	 * Creates a new session.
+	 *
+	 * @param checkpoint the checkpoint of the simulation
+	 * @param width      the width of the image
+	 * @param height     the height of the image
+	 * @param pixels     the ARGB pixels of the image, row by row; not copied
+	 * @param renderMode the way the needles were displayed
+	 * @param counts     the counts of the heatmap, row by row, if the render
+	 *                   mode is {@link RenderMode#HEATMAP}; {@code null}
+	 *                   otherwise. Not copied
+	 */
+	public CanvasSession(Checkpoint checkpoint, int width, int height, int[] pixels,
+						 RenderMode renderMode, int[] counts) {
+		if (width <= 0 || height <= 0 || pixels.length != width * height) throw new IllegalArgumentException();
+		if ((renderMode == RenderMode.HEATMAP) != (counts != null)) throw new IllegalArgumentException();
+		if (counts != null && counts.length != pixels.length) throw new IllegalArgumentException();
+		this.checkpoint = checkpoint;
+		this.width = width;
+		this.height = height;
+		this.pixels = pixels;
+		this.renderMode = renderMode;
+		this.counts = counts;
+	}
+
+	/**
+	 * Writes this session to the given file, atomically replacing any
+	 * previous one.
+	 *
+	 * @param path the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		AtomicFile.write(path, stream -> {
+			checkpoint.write(stream);
+
+			DataOutputStream out = new DataOutputStream(stream);
+			out.writeInt(SESSION_MAGIC);
+			out.writeInt(width);
+			out.writeInt(height);
+			out.writeInt(renderMode.ordinal());
+			out.flush();
+
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try {
+				DeflaterOutputStream image = new DeflaterOutputStream(stream, deflater, CHUNK);
+				ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+				writeInts(image, chunk, pixels);
+				if (counts != null) writeInts(image, chunk, counts);
+				image.finish();
+			} finally {
+				deflater.end();
+			}
+		});
+	}
+
+	/**
+	 * Reads a session from the given file. A plain checkpoint, without
+	 * an image, is not a session.
+	 *
+	 * @param path the file
+	 * @return the session
+	 * @throws IOException if the file cannot be read, or is not a valid session
+	 */
+	public static CanvasSession read(Path path) throws IOException {
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(path), CHUNK)) {
+			Checkpoint checkpoint = Checkpoint.read(stream);
+
+			DataInputStream in = new DataInputStream(stream);
+			int magic = in.readInt();
+			if (magic != IMAGE_MAGIC && magic != SESSION_MAGIC) throw new IOException("No canvas image");
+			int width = in.readInt();
+			int height = in.readInt();
+			if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+				throw new IOException("Invalid canvas image");
+			}
+			RenderMode renderMode = RenderMode.NEEDLES;
+			if (magic == SESSION_MAGIC) {
+				int mode = in.readInt();
+				if (mode < 0 || mode >= RenderMode.values().length) throw new IOException("Invalid render mode");
+				renderMode = RenderMode.values()[mode];
+			}
+
+			int[] pixels = new int[width * height];
+			int[] counts = renderMode == RenderMode.HEATMAP ? new int[width * height] : null;
+			Inflater inflater = new Inflater();
+			try {
+				DataInputStream image = new DataInputStream(new InflaterInputStream(stream, inflater, CHUNK));
+				ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+				readInts(image, chunk, pixels);
+				if (counts != null) readInts(image, chunk, counts);
+			} finally {
+				inflater.end();
+			}
+			return new CanvasSession(checkpoint, width, height, pixels, renderMode, counts);
+		} catch (EOFException | ZipException e) {
+			throw new IOException(path + ": Corrupted canvas image", e);
+		} catch (IOException e) {
+			throw new IOException(path + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes the given values, through the given chunk.
+	 *
+	 * @param out    the stream to write to
+	 * @param chunk  the buffer of {@link #CHUNK} bytes the values are copied through
+	 * @param values the values
+	 * @throws IOException if the values cannot be written
+	 */
+	private static void writeInts(OutputStream out, ByteBuffer chunk, int[] values) throws IOException {
+		for (int i = 0; i < values.length; i += CHUNK / 4) {
+			int n = Math.min(CHUNK / 4, values.length - i);
+			chunk.clear();
+			chunk.asIntBuffer().put(values, i, n);
+			out.write(chunk.array(), 0, n * 4);
+		}
+	}
+
+	/**
+	 * Reads the given number of values, through the given chunk.
+	 *
+	 * @param in     the stream to read from
+	 * @param chunk  the buffer of {@link #CHUNK} bytes the values are copied through
+	 * @param values the array to fill with the values
+	 * @throws IOException if the values cannot be read
+	 */
+	private static void readInts(DataInputStream in, ByteBuffer chunk, int[] values) throws IOException {
+		for (int i = 0; i < values.length; i += CHUNK / 4) {
+			int n = Math.min(CHUNK / 4, values.length - i);
+			in.readFully(chunk.array(), 0, n * 4);
+			chunk.clear();
+			chunk.asIntBuffer().get(values, i, n);
+		}
+	}
+
+	/**
+	 * Returns the checkpoint of the simulation.
+	 *
+	 * @return the checkpoint
+	 */
+	public Checkpoint getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * Returns the width of the image.
+	 *
+	 * @return the width of the image
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the image.
+	 *
+	 * @return the height of the image
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the ARGB pixels of the image, row by row; not copied.
+	 *
+	 * @return the pixels of the image
+	 */
+	public int[] getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * Returns the way the needles were displayed.
+	 *
+	 * @return the render mode
+	 */
+	public RenderMode getRenderMode() {
+		return renderMode;
+	}
+
+	/**
+	 * Returns the counts of the heatmap, row by row; not copied.
+	 *
+	 * @return the counts, or {@code null} unless the render mode is
+	 * {@link RenderMode#HEATMAP}
+	 */
+	public int[] getCounts() {
+		return counts;
+	}
+}
@@ -0,0 +1,103 @@
+package buffon.components.canvas;
+
+import buffon.engine.SimulationEngine;
+import buffon.model.NeedleBatch;
+
+import java.util.Arrays;
+
+/**
+ * The needles counted by a single producer of the {@link AnimationLoop}
+ * since they were last added to the canvas.
+ * <p>
+ * Every producer counts its own needles, guarded by a lock of its own,
+ * so the producers never wait for each other or for the canvas image.
+ * The renderer adds the counts to the {@link DensityHeatmap} and to the
+ * engine together, once per frame, while holding the image lock.
+ * <p>
+ * If the renderer falls behind, a producer waits once it has counted
+ * {@link #CAPACITY} needles, so the memory does not grow with the
+ * simulation rate.
+ */
+class DensityCounts {
+
+	/**
+	 * The maximum number of needles crossing a line counted at once.
+	 */
+	private static final int CAPACITY = 1 << 20;
+
+	/**
+	 * The heatmap the {@link #pixels} have been found on; {@code null}
+	 * if none.
+	 */
+	private DensityHeatmap heatmap;
+
+	/**
+	 * The indices of the pixels holding the centers of the needles
+	 * crossing a line, as found by the {@link #heatmap}.
+	 */
+	private int[] pixels = new int[1024];
+
+	/**
+	 * The number of the {@link #pixels}.
+	 */
+	private int size;
+
+	/**
+	 * The number of needles counted.
+	 */
+	private long thrown;
+
+	/**
+	 * The number of needles counted which cross a line.
+	 */
+	private long hits;
+
+	/**
+	 * Counts the needles of the given batch, waiting while the counts
+	 * are full. The pixels of the needles are found on the given
+	 * heatmap; those found on an earlier one, e.g. before the canvas
+	 * was resized, are discarded.
+	 *
+	 * @param batch   the batch of needles
+	 * @param hits    the number of needles of the batch crossing a line
+	 * @param heatmap the current heatmap of the canvas; {@code null} if none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	synchronized void accumulate(NeedleBatch batch, int hits, DensityHeatmap heatmap) throws InterruptedException {
+		while (size + hits > CAPACITY) wait();
+
+		if (heatmap != this.heatmap) {
+			this.heatmap = heatmap;
+			size = 0;
+		}
+		if (heatmap != null) {
+			if (size + hits > pixels.length) {
+				pixels = Arrays.copyOf(pixels, Math.max(pixels.length * 2, size + hits));
+			}
+			for (int i = 0, n = batch.getSize(); i < n; i++) {
+				if (batch.hit[i]) pixels[size++] = heatmap.pixelOf(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i]);
+			}
+		}
+		this.thrown += batch.getSize();
+		this.hits += hits;
+	}
+
+	/**
+	 * Adds the counted needles to the given heatmap, unless their pixels
+	 * have been found on another one, and merges their values into the
+	 * given engine, then resets the counts. Must be called while holding
+	 * the lock of the image of the heatmap.
+	 *
+	 * @param heatmap the current heatmap of the canvas; {@code null} if none
+	 * @param engine  the engine of the canvas
+	 */
+	synchronized void drainTo(DensityHeatmap heatmap, SimulationEngine engine) {
+		if (heatmap != null && heatmap == this.heatmap) heatmap.add(pixels, size);
+		if (thrown > 0) engine.merge(thrown, hits);
+
+		size = 0;
+		thrown = 0;
+		hits = 0;
+		notifyAll();
+	}
+}
@@ -0,0 +1,311 @@
+package buffon.components.canvas;
+
+import buffon.model.NeedleBatch;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Shows the density of the needles crossing a line as a heatmap, on a
+ * {@link BufferedImage#TYPE_INT_ARGB} image.
+ * <p>
+ * Instead of being drawn, every needle crossing a line adds one to the
+ * count of the pixel holding its center, which costs a single increment
+ * however long the needle is. The pixels are colored by their counts,
+ * on a logarithmic scale up to the next power of two above the largest
+ * count, so the bands around the lines show how the probability of a
+ * crossing falls with the distance from the line.
+ * <p>
+ * The image is updated incrementally by {@link #render()}: only the
+ * pixels counted since the last update are recolored, unless the
+ * largest count outgrew the scale, in which case all of them are.
+ * <p>
+ * Not thread-safe; the caller must guard the image.
+ */
+public class DensityHeatmap {
+
+	/**
+	 * The colors the scale runs through, from the lowest count to the
+	 * highest.
+	 */
+	private static final Color[] GRADIENT = {
+			new Color(40, 77, 135),
+			new Color(140, 50, 120),
+			new Color(214, 48, 49),
+			new Color(250, 160, 40),
+			new Color(255, 235, 120)
+	};
+
+	/**
+	 * The colors of the scale, as ARGB.
+	 */
+	private static final int[] PALETTE = createPalette(256);
+
+	/**
+	 * The pixels of the image, row by row.
+	 */
+	private final int[] pixels;
+
+	/**
+	 * The width of the image.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the image.
+	 */
+	private final int height;
+
+	/**
+	 * The counts of the pixels, row by row.
+	 */
+	private final int[] counts;
+
+	/**
+	 * Whether each pixel has been counted since the last update.
+	 */
+	private final boolean[] touched;
+
+	/**
+	 * The indices of the pixels counted since the last update.
+	 */
+	private int[] touchedPixels = new int[1024];
+
+	/**
+	 * The number of the {@link #touchedPixels}.
+	 */
+	private int touchedCount;
+
+	/**
+	 * The leftmost column of the pixels counted since the last update.
+	 */
+	private int touchedMinX = Integer.MAX_VALUE;
+
+	/**
+	 * The topmost row of the pixels counted since the last update.
+	 */
+	private int touchedMinY = Integer.MAX_VALUE;
+
+	/**
+	 * The rightmost column of the pixels counted since the last update.
+	 */
+	private int touchedMaxX = Integer.MIN_VALUE;
+
+	/**
+	 * The bottommost row of the pixels counted since the last update.
+	 */
+	private int touchedMaxY = Integer.MIN_VALUE;
+
+	/**
+	 * The largest count.
+	 */
+	private int max;
+
+	/**
+	 * The count shown with the last color of the palette; a power of two.
+	 */
+	private long scale = 2;
+
+	/**
+	 * The logarithm of the {@link #scale}.
+	 */
+	private double logScale = Math.log(2);
+
+	/**
+	 * Creates a new heatmap shown on the given image.
+	 *
+	 * @param image the image; must be of {@link BufferedImage#TYPE_INT_ARGB}
+	 */
+	public DensityHeatmap(BufferedImage image) {
+		if (image.getType() != BufferedImage.TYPE_INT_ARGB) throw new IllegalArgumentException();
+		this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.counts = new int[width * height];
+		this.touched = new boolean[width * height];
+	}
+
+	/**
+	 * Counts the needles of the given batch which cross a line.
+	 *
+	 * @param batch the batch of needles
+	 */
+	public void accumulate(NeedleBatch batch) {
+		for (int i = 0, n = batch.getSize(); i < n; i++) {
+			if (batch.hit[i]) count(pixelOf(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i]));
+		}
+	}
+
+	/**
+	 * Counts the given pixels, once per occurrence, as found by
+	 * {@link #pixelOf(double, double, double, double)}.
+	 *
+	 * @param pixels the indices of the pixels; negative ones are skipped
+	 * @param n      the number of the pixels
+	 */
+	void add(int[] pixels, int n) {
+		for (int k = 0; k < n; k++) {
+			count(pixels[k]);
+		}
+	}
+
+	/**
+	 * Returns the pixel holding the center of the given needle. Only
+	 * reads the size of the image, so may be called from any thread.
+	 *
+	 * @param x1 the x coordinate of the first point
+	 * @param y1 the y coordinate of the first point
+	 * @param x2 the x coordinate of the second point
+	 * @param y2 the y coordinate of the second point
+	 * @return the index of the pixel, row by row; -1 if the center
+	 * is outside of the image
+	 */
+	int pixelOf(double x1, double y1, double x2, double y2) {
+		double cx = (x1 + x2) / 2;
+		double cy = (y1 + y2) / 2;
+		// also rejects NaN coordinates
+		if (!(cx >= 0 && cx < width && cy >= 0 && cy < height)) return -1;
+		return (int) cy * width + (int) cx;
+	}
+
+	/**
+	 * Recolors the pixels counted since the last update, or all counted
+	 * pixels if the scale has grown.
+	 *
+	 * @return the region of the image recolored; {@code null} if none
+	 */
+	public Rectangle render() {
+		if (touchedCount == 0) return null;
+
+		Rectangle region;
+		if (max > scale) {
+			while (scale < max) scale *= 2;
+			logScale = Math.log(scale);
+			for (int i = 0; i < counts.length; i++) {
+				if (counts[i] > 0) pixels[i] = color(counts[i]);
+			}
+			region = new Rectangle(width, height);
+		} else {
+			for (int k = 0; k < touchedCount; k++) {
+				int i = touchedPixels[k];
+				pixels[i] = color(counts[i]);
+			}
+			region = new Rectangle(touchedMinX, touchedMinY,
+					touchedMaxX - touchedMinX + 1, touchedMaxY - touchedMinY + 1);
+		}
+
+		for (int k = 0; k < touchedCount; k++) {
+			touched[touchedPixels[k]] = false;
+		}
+		resetTouched();
+		return region;
+	}
+
+	/**
+	 * Resets all counts. The image is left as is.
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0);
+		Arrays.fill(touched, false);
+		resetTouched();
+		max = 0;
+		scale = 2;
+		logScale = Math.log(2);
+	}
+
+	/**
+	 * Returns a copy of the counts of the pixels, row by row.
+	 *
+	 * @return the counts
+	 */
+	public int[] getCounts() {
+		return counts.clone();
+	}
+
+	/**
+	 * Replaces all counts, e.g. with those of a saved session. The image
+	 * is left as is; it is expected to show the given counts already.
+	 *
+	 * @param counts the counts of the pixels, row by row
+	 */
+	public void setCounts(int[] counts) {
+		if (counts.length != this.counts.length) throw new IllegalArgumentException();
+		clear();
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] < 0) throw new IllegalArgumentException();
+			this.counts[i] = counts[i];
+			if (counts[i] > max) max = counts[i];
+		}
+		while (scale < max) scale *= 2;
+		logScale = Math.log(scale);
+	}
+
+	/**
+	 * Forgets the pixels counted since the last update.
+	 */
+	private void resetTouched() {
+		touchedCount = 0;
+		touchedMinX = touchedMinY = Integer.MAX_VALUE;
+		touchedMaxX = touchedMaxY = Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Adds one to the count of the given pixel.
+	 *
+	 * @param i the index of the pixel, row by row; skipped if negative
+	 */
+	private void count(int i) {
+		if (i < 0 || counts[i] == Integer.MAX_VALUE) return;
+		if (++counts[i] > max) max = counts[i];
+
+		if (!touched[i]) {
+			touched[i] = true;
+			if (touchedCount == touchedPixels.length) {
+				touchedPixels = Arrays.copyOf(touchedPixels, touchedCount * 2);
+			}
+			touchedPixels[touchedCount++] = i;
+			int x = i % width;
+			int y = i / width;
+			touchedMinX = Math.min(touchedMinX, x);
+			touchedMinY = Math.min(touchedMinY, y);
+			touchedMaxX = Math.max(touchedMaxX, x);
+			touchedMaxY = Math.max(touchedMaxY, y);
+		}
+	}
+
+	/**
+	 * Returns the color of the given count on the current scale.
+	 *
+	 * @param count the count, positive
+	 * @return the color, as ARGB
+	 */
+	private int color(int count) {
+		int index = (int) ((PALETTE.length - 1) * Math.log(count) / logScale);
+		return PALETTE[Math.min(index, PALETTE.length - 1)];
+	}
+
+	/**
+	 * Creates the palette of the scale, interpolating the {@link #GRADIENT}.
+	 *
+	 * @param size the number of colors
+	 * @return the colors, as ARGB
+	 */
+	private static int[] createPalette(int size) {
+		int[] palette = new int[size];
+		for (int i = 0; i < size; i++) {
+			double t = (double) i / (size - 1) * (GRADIENT.length - 1);
+			int k = Math.min((int) t, GRADIENT.length - 2);
+			double f = t - k;
+			Color from = GRADIENT[k];
+			Color to = GRADIENT[k + 1];
+			int r = (int) Math.round(from.getRed() + f * (to.getRed() - from.getRed()));
+			int g = (int) Math.round(from.getGreen() + f * (to.getGreen() - from.getGreen()));
+			int b = (int) Math.round(from.getBlue() + f * (to.getBlue() - from.getBlue()));
+			palette[i] = 0xff000000 | r << 16 | g << 8 | b;
+		}
+		return palette;
+	}
+}
@@ -0,0 +1,242 @@
+package buffon.components.canvas;
+
+import buffon.model.NeedleBatch;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Draws needles straight into the pixel array of a
+ * {@link BufferedImage#TYPE_INT_ARGB} image, bypassing the per-line
+ * overhead of {@code Graphics2D} (stroke and color objects, shape
+ * widening, the antialiasing pipeline).
+ * <p>
+ * A needle is drawn the way {@code Graphics2D} draws an antialiased
+ * line with a {@code BasicStroke} of the same width: as a rectangle
+ * around the segment, extended by half the width at both ends (the
+ * square caps). The rectangle is scanned along the major axis of the
+ * needle, one column (or row) of pixels at a time, in the spirit of
+ * Wu's algorithm: in each column, the band of the rectangle covers a
+ * few pixels, and each of them is blended with the needle's color in
+ * proportion to the length of the band it covers. At the ends of the
+ * needle, the coverage is scaled by the portion of the column covered.
+ * <p>
+ * A rasterizer may be limited to a rectangle of the image, so that
+ * several rasterizers can draw onto disjoint parts of the same image
+ * from different threads (see {@link TiledRasterizer}).
+ * <p>
+ * Not thread-safe; the caller must guard the image.
+ */
+public class NeedleRasterizer {
+
+	/**
+	 * The width of the needles, in pixels.
+	 */
+	public static final double WIDTH = 1.8;
+
+	/**
+	 * The offset of the needles' coordinates, matching the way
+	 * {@code Graphics2D} normalizes antialiased strokes.
+	 */
+	private static final double OFFSET = 0.5;
+
+	/**
+	 * The bias making the coordinates around the image positive, so
+	 * that truncating them rounds them down.
+	 */
+	private static final int FLOOR_BIAS = 1 << 16;
+
+	/**
+	 * The pixels of the image, row by row.
+	 */
+	private final int[] pixels;
+
+	/**
+	 * The width of the image, i.e. the distance between two rows in
+	 * the {@link #pixels}.
+	 */
+	private final int scanline;
+
+	/**
+	 * The leftmost column drawn upon.
+	 */
+	private final int minX;
+
+	/**
+	 * The rightmost column drawn upon.
+	 */
+	private final int maxX;
+
+	/**
+	 * The topmost row drawn upon.
+	 */
+	private final int minY;
+
+	/**
+	 * The bottommost row drawn upon.
+	 */
+	private final int maxY;
+
+	/**
+	 * Creates a new rasterizer drawing onto the given image. The image
+	 * is no longer accelerated by Java2D afterwards, since its pixels
+	 * are accessed directly.
+	 *
+	 * @param image the image; must be of {@link BufferedImage#TYPE_INT_ARGB}
+	 */
+	public NeedleRasterizer(BufferedImage image) {
+		this(image, 0, 0, image.getWidth(), image.getHeight());
+	}
+
+	/**
+	 * Creates a new rasterizer drawing onto the given rectangle of the
+	 * given image only.
+	 *
+	 * @param image  the image; must be of {@link BufferedImage#TYPE_INT_ARGB}
+	 * @param x      the x coordinate of the rectangle
+	 * @param y      the y coordinate of the rectangle
+	 * @param width  the width of the rectangle
+	 * @param height the height of the rectangle
+	 */
+	public NeedleRasterizer(BufferedImage image, int x, int y, int width, int height) {
+		if (image.getType() != BufferedImage.TYPE_INT_ARGB) throw new IllegalArgumentException();
+		if (x < 0 || y < 0 || width <= 0 || height <= 0
+				|| x + width > image.getWidth() || y + height > image.getHeight()) {
+			throw new IllegalArgumentException();
+		}
+		this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		this.scanline = image.getWidth();
+		this.minX = x;
+		this.maxX = x + width - 1;
+		this.minY = y;
+		this.maxY = y + height - 1;
+	}
+
+	/**
+	 * Draws all needles of the given batch.
+	 *
+	 * @param batch the batch of needles to draw
+	 */
+	public void draw(NeedleBatch batch) {
+		for (int i = 0, n = batch.getSize(); i < n; i++) {
+			draw(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i], batch.color[i]);
+		}
+	}
+
+	/**
+	 * Draws a single needle.
+	 *
+	 * @param x1    the x coordinate of the first point
+	 * @param y1    the y coordinate of the first point
+	 * @param x2    the x coordinate of the second point
+	 * @param y2    the y coordinate of the second point
+	 * @param color the color of the needle, as ARGB
+	 */
+	public void draw(double x1, double y1, double x2, double y2, int color) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+
+		// scan along the major axis: u is the major coordinate, v the minor one
+		boolean steep = Math.abs(dy) > Math.abs(dx);
+		double u1, v1, u2, v2;
+		if (steep) {
+			u1 = y1; v1 = x1; u2 = y2; v2 = x2;
+		} else {
+			u1 = x1; v1 = y1; u2 = x2; v2 = y2;
+		}
+		if (u1 > u2) {
+			double t = u1; u1 = u2; u2 = t;
+			t = v1; v1 = v2; v2 = t;
+		}
+		u1 += OFFSET;
+		u2 += OFFSET;
+		v1 += OFFSET;
+		v2 += OFFSET;
+
+		double du = u2 - u1;
+		double length = Math.sqrt(dx * dx + dy * dy);
+		double slope, halfBand, cap;
+		if (length == 0) {
+			// a point is drawn as a square, like a zero-length line with square caps
+			slope = 0;
+			halfBand = WIDTH / 2;
+			cap = WIDTH / 2;
+		} else {
+			slope = (v2 - v1) / du;
+			halfBand = WIDTH / 2 * length / du;
+			cap = WIDTH / 2 * du / length;
+		}
+
+		double start = u1 - cap;
+		double end = u2 + cap;
+		int minMajor = steep ? minY : minX;
+		int maxMajor = steep ? maxY : maxX;
+		int minMinor = steep ? minX : minY;
+		int maxMinor = steep ? maxX : maxY;
+		int majorStride = steep ? scanline : 1;
+		int minorStride = steep ? 1 : scanline;
+		int first = Math.max(minMajor, floor(start));
+		int last = Math.min(maxMajor, floor(end));
+
+		int alpha = color >>> 24;
+		double v = v1 + slope * (first + 0.5 - u1);
+		for (int i = first; i <= last; i++, v += slope) {
+			// only the columns at the ends are partially covered
+			double majorCoverage = (i + 1 > end ? end : i + 1) - (i < start ? start : i);
+			int columnAlpha = (int) (majorCoverage * (alpha + 1) * 256);
+
+			double low = v - halfBand;
+			double high = v + halfBand;
+			int from = floor(low);
+			int to = floor(high);
+			if (from < minMinor) {
+				from = minMinor;
+				low = from;
+			}
+			if (to > maxMinor) {
+				to = maxMinor;
+				high = to + 1;
+			}
+
+			int index = i * majorStride + from * minorStride;
+			for (int j = from; j <= to; j++, index += minorStride) {
+				// only the pixels at the edges of the band are partially covered
+				double coverage = (j == to ? high : j + 1) - (j == from ? low : j);
+				int a = ((int) (coverage * columnAlpha) + 128) >> 8;
+				if (a > 0) {
+					pixels[index] = blend(pixels[index], color, a);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rounds the given value down, faster than {@link Math#floor} for
+	 * the values around the image.
+	 *
+	 * @param value the value, greater than {@code -FLOOR_BIAS}
+	 * @return the largest integer not greater than the value
+	 */
+	private static int floor(double value) {
+		return (int) (value + FLOOR_BIAS) - FLOOR_BIAS;
+	}
+
+	/**
+	 * Blends the given color over the given pixel (Porter-Duff source
+	 * over), assuming the pixel is opaque, as the canvas' background is.
+	 * The red and blue channels are blended at once, in a single int.
+	 *
+	 * @param pixel the pixel, as ARGB
+	 * @param color the color, as ARGB; its alpha is ignored
+	 * @param alpha the effective alpha of the color, from [0, 256]
+	 * @return the blended pixel, as ARGB
+	 */
+	private static int blend(int pixel, int color, int alpha) {
+		int inverse = 256 - alpha;
+		int rb = ((color & 0xff00ff) * alpha + (pixel & 0xff00ff) * inverse) >>> 8 & 0xff00ff;
+		int g = ((color & 0xff00) * alpha + (pixel & 0xff00) * inverse) >>> 8 & 0xff00;
+		int a = pixel >>> 24;
+		a += (255 - a) * alpha >> 8;
+		return a << 24 | rb | g;
+	}
+}
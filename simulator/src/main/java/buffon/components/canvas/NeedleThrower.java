@@ -0,0 +1,250 @@
+package buffon.components.canvas;
+
+import buffon.engine.SimulationEngine;
+import buffon.model.NeedleBatch;
+
+import javax.swing.SwingWorker;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Throws a bunch of needles onto the canvas at once. The needles are
+ * thrown, scored and drawn in batches on a background thread, and the
+ * canvas is repainted at most once per frame, so even millions of
+ * needles do not flood the event dispatch thread.
+ * <p>
+ * The progress of a throw (from 0 to 100) is reported to the
+ * registered listeners through the {@code "progress"} property, and
+ * its end through the {@code "throwing"} property. Both are fired on
+ * the event dispatch thread.
+ */
+public class NeedleThrower {
+
+	/**
+	 * The number of needles thrown and drawn at once.
+	 */
+	public static final int BATCH_SIZE = 4096;
+
+	/**
+	 * The minimum time between two repaints, in nanoseconds.
+	 */
+	private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+	/**
+	 * The canvas to draw upon.
+	 */
+	private Canvas canvas;
+
+	/**
+	 * The number of needles to throw.
+	 */
+	private long n;
+
+	/**
+	 * A flag denoting whether the NeedleThrower is currently
+	 * active, i.e. if the needles are currently being thrown
+	 * onto the canvas.
+	 */
+	private volatile boolean throwing;
+
+	/**
+	 * The worker throwing the needles in the background.
+	 */
+	private ThrowWorker worker;
+
+	/**
+	 * The support for the progress listeners.
+	 */
+	private PropertyChangeSupport support = new PropertyChangeSupport(this);
+
+	/**
+	 * Creates a new {@link NeedleThrower} object.
+	 *
+	 * @param canvas the canvas to throw the needles onto
+	 * @param n      the number of needles to throw
+	 */
+	public NeedleThrower(Canvas canvas, long n) {
+		this.canvas = canvas;
+		this.n = n;
+	}
+
+	/**
+	 * Creates a new {@link NeedleThrower} object.
+	 *
+	 * @param canvas the canvas to throw the needles onto
+	 */
+	public NeedleThrower(Canvas canvas) {
+		this.canvas = canvas;
+	}
+
+	/**
+	 * Starts throwing the needles. This method can be called
+	 * multiple times; a throw which is still in progress is
+	 * cancelled. Must be called on the event dispatch thread.
+	 */
+	public void start() {
+		cancel();
+
+		SimulationEngine engine = canvas.getEngine();
+		SimulationEngine local = new SimulationEngine(engine, engine.getRandom().split());
+
+		worker = new ThrowWorker(local, n);
+		worker.addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				support.firePropertyChange("progress", e.getOldValue(), e.getNewValue());
+			}
+		});
+
+		throwing = true;
+		support.firePropertyChange("throwing", false, true);
+		worker.execute();
+	}
+
+	/**
+	 * Cancels the throw which is currently in progress, if any, and
+	 * waits for the worker to finish its current batch, so that no
+	 * needle of the cancelled throw is drawn or counted afterwards.
+	 */
+	public void cancel() {
+		if (worker != null) {
+			worker.cancel(false);
+			worker.awaitFinished();
+			worker = null;
+		}
+	}
+
+	/**
+	 * Sets the new number of needles to throw.
+	 *
+	 * @param n the number of needles to throw
+	 */
+	public void setN(long n) {
+		this.n = n;
+	}
+
+	/**
+	 * Checks if the needles are currently being thrown.
+	 *
+	 * @return true if and only if the needles are currently
+	 * being thrown
+	 */
+	public boolean isThrowing() {
+		return throwing;
+	}
+
+	/**
+	 * Adds a listener for the {@code "progress"} and {@code "throwing"}
+	 * properties.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addPropertyChangeListener(PropertyChangeListener listener) {
+		support.addPropertyChangeListener(listener);
+	}
+
+	/**
+	 * Removes the specified listener.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removePropertyChangeListener(PropertyChangeListener listener) {
+		support.removePropertyChangeListener(listener);
+	}
+
+	/**
+	 * The background worker which throws, scores and draws the
+	 * needles in batches.
+	 */
+	private class ThrowWorker extends SwingWorker<Void, Void> {
+
+		/**
+		 * The worker's own copy of the engine.
+		 */
+		private SimulationEngine local;
+
+		/**
+		 * The number of needles to throw.
+		 */
+		private long count;
+
+		/**
+		 * Released once the worker has stopped drawing and merging.
+		 */
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		/**
+		 * Creates a new worker.
+		 *
+		 * @param local the worker's own copy of the engine
+		 * @param count the number of needles to throw
+		 */
+		ThrowWorker(SimulationEngine local, long count) {
+			this.local = local;
+			this.count = count;
+		}
+
+		/**
+		 * Waits until the worker has stopped drawing and merging, even
+		 * if interrupted. A worker cancelled before it started never
+		 * draws anything, so it is not waited for.
+		 */
+		void awaitFinished() {
+			if (getState() == StateValue.PENDING) return;
+
+			boolean interrupted = false;
+			while (true) {
+				try {
+					finished.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+
+		@Override
+		protected Void doInBackground() {
+			try {
+				throwNeedles();
+			} finally {
+				finished.countDown();
+			}
+			return null;
+		}
+
+		/**
+		 * Throws, scores and draws the needles in batches, until all
+		 * have been thrown or the worker is cancelled.
+		 */
+		private void throwNeedles() {
+			NeedleBatch batch = new NeedleBatch(BATCH_SIZE);
+			long lastFrame = System.nanoTime();
+
+			long thrown = 0;
+			while (thrown < count && !isCancelled()) {
+				int size = (int) Math.min(count - thrown, BATCH_SIZE);
+				local.generateBatch(batch, size);
+				canvas.drawBatch(batch, local.scoreBatch(batch));
+				thrown += size;
+
+				long now = System.nanoTime();
+				if (now - lastFrame >= FRAME_NANOS) {
+					lastFrame = now;
+					setProgress((int) (100.0 * thrown / count));
+					canvas.repaintDrawn();
+				}
+			}
+		}
+
+		@Override
+		protected void done() {
+			if (worker == this || worker == null) {
+				throwing = false;
+				support.firePropertyChange("throwing", true, false);
+			}
+			canvas.repaint();
+		}
+	}
+}
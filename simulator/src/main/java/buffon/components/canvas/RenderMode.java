@@ -0,0 +1,37 @@
+package buffon.components.canvas;
+
+/**
+ * The ways the canvas displays the thrown needles.
+ */
+public enum RenderMode {
+
+	/**
+	 * Every needle is drawn as an antialiased line.
+	 */
+	NEEDLES("Needles"),
+
+	/**
+	 * The density of the needles crossing a line is shown as a heatmap,
+	 * which keeps up with far more needles than drawing them does.
+	 */
+	HEATMAP("Heatmap");
+
+	/**
+	 * The name of the mode, as shown to the user.
+	 */
+	private String name;
+
+	/**
+	 * Creates a new render mode.
+	 *
+	 * @param name the name of the mode, as shown to the user
+	 */
+	RenderMode(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
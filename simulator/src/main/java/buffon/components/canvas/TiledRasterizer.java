@@ -0,0 +1,355 @@
+package buffon.components.canvas;
+
+import buffon.model.NeedleBatch;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws batches of needles onto an image on several threads at once.
+ * <p>
+ * The image is partitioned into square tiles of {@link #TILE_SIZE}
+ * pixels, each with its own {@link NeedleRasterizer} limited to the
+ * tile and its own queue of needles. A batch is first sorted into the
+ * queues of the tiles its needles' bounding boxes touch; then the
+ * render threads claim whole tiles, one at a time, and draw their
+ * queues. Since every pixel belongs to a single tile, which is drawn
+ * by a single thread, in the order of the batch, no locks are needed
+ * and the image is exactly the same as if drawn on a single thread.
+ * <p>
+ * The union of the bounding boxes of the needles drawn is kept as the
+ * dirty region, until taken by {@link #takeDirtyRegion()}, so that only
+ * the parts of the image that changed need to be repainted.
+ * <p>
+ * Not thread-safe; the caller must guard the image.
+ */
+public class TiledRasterizer {
+
+	/**
+	 * The size of the tiles, in pixels.
+	 */
+	public static final int TILE_SIZE = 128;
+
+	/**
+	 * The minimum size of a batch drawn on several threads; smaller
+	 * batches are not worth the hand-off.
+	 */
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	/**
+	 * The distance by which a needle's pixels may extend beyond its
+	 * end points, in pixels (half its width, its caps and the offset).
+	 */
+	private static final double MARGIN = NeedleRasterizer.WIDTH + 1;
+
+	/**
+	 * The width of the image.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the image.
+	 */
+	private final int height;
+
+	/**
+	 * The number of columns of tiles.
+	 */
+	private final int columns;
+
+	/**
+	 * The number of rows of tiles.
+	 */
+	private final int rows;
+
+	/**
+	 * The rasterizer drawing onto the whole image, used when drawing on
+	 * a single thread.
+	 */
+	private final NeedleRasterizer whole;
+
+	/**
+	 * The rasterizers of the tiles, row by row.
+	 */
+	private final NeedleRasterizer[] tiles;
+
+	/**
+	 * The indices of the needles of the current batch which touch each
+	 * tile, in the order of the batch.
+	 */
+	private final int[][] queues;
+
+	/**
+	 * The number of needles in each of the {@link #queues}.
+	 */
+	private final int[] queueSizes;
+
+	/**
+	 * The left edge of the dirty region; {@link Integer#MAX_VALUE} if
+	 * nothing has been drawn since the dirty region was last taken.
+	 */
+	private int dirtyMinX = Integer.MAX_VALUE;
+
+	/**
+	 * The top edge of the dirty region.
+	 */
+	private int dirtyMinY = Integer.MAX_VALUE;
+
+	/**
+	 * The right edge of the dirty region, exclusive.
+	 */
+	private int dirtyMaxX = Integer.MIN_VALUE;
+
+	/**
+	 * The bottom edge of the dirty region, exclusive.
+	 */
+	private int dirtyMaxY = Integer.MIN_VALUE;
+
+	/**
+	 * The index of the next tile to be claimed by a render thread.
+	 */
+	private final AtomicInteger nextTile = new AtomicInteger();
+
+	/**
+	 * The pool of the render threads helping the calling thread;
+	 * {@code null} if drawing on a single thread.
+	 */
+	private final ExecutorService pool;
+
+	/**
+	 * The tasks of the helping render threads.
+	 */
+	private final List<Runnable> helpers = new ArrayList<>();
+
+	/**
+	 * The batch being drawn.
+	 */
+	private NeedleBatch current;
+
+	/**
+	 * Creates a new tiled rasterizer using all available cores.
+	 *
+	 * @param image the image; must be of {@link BufferedImage#TYPE_INT_ARGB}
+	 */
+	public TiledRasterizer(BufferedImage image) {
+		this(image, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new tiled rasterizer.
+	 *
+	 * @param image   the image; must be of {@link BufferedImage#TYPE_INT_ARGB}
+	 * @param threads the number of render threads, including the calling one
+	 */
+	public TiledRasterizer(BufferedImage image, int threads) {
+		if (threads < 1) throw new IllegalArgumentException();
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+		this.rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+		this.whole = new NeedleRasterizer(image);
+
+		int count = columns * rows;
+		this.tiles = new NeedleRasterizer[count];
+		this.queues = new int[count][16];
+		this.queueSizes = new int[count];
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				int x = column * TILE_SIZE;
+				int y = row * TILE_SIZE;
+				tiles[row * columns + column] = new NeedleRasterizer(image, x, y,
+						Math.min(TILE_SIZE, width - x), Math.min(TILE_SIZE, height - y));
+			}
+		}
+
+		// the calling thread is a render thread too
+		int helping = Math.min(threads, count) - 1;
+		if (helping > 0) {
+			this.pool = Executors.newFixedThreadPool(helping, r -> {
+				Thread t = new Thread(r, "needle-renderer");
+				t.setDaemon(true);
+				return t;
+			});
+			for (int i = 0; i < helping; i++) {
+				helpers.add(this::drawTiles);
+			}
+		} else {
+			this.pool = null;
+		}
+	}
+
+	/**
+	 * Draws all needles of the given batch, blocking until all of them
+	 * have been drawn.
+	 *
+	 * @param batch the batch of needles to draw
+	 */
+	public void draw(NeedleBatch batch) {
+		if (pool == null || batch.getSize() < PARALLEL_THRESHOLD) {
+			for (int i = 0, n = batch.getSize(); i < n; i++) {
+				if (markDirty(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i])) {
+					whole.draw(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i], batch.color[i]);
+				}
+			}
+			return;
+		}
+
+		enqueue(batch);
+		current = batch;
+		nextTile.set(0);
+
+		List<Future<?>> futures = new ArrayList<>(helpers.size());
+		for (Runnable helper : helpers) {
+			futures.add(pool.submit(helper));
+		}
+		drawTiles();
+
+		// the helpers must be done before the image is released, even if interrupted
+		boolean interrupted = false;
+		for (Future<?> f : futures) {
+			while (true) {
+				try {
+					f.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		}
+		current = null;
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Draws a single needle, on the calling thread.
+	 *
+	 * @param x1    the x coordinate of the first point
+	 * @param y1    the y coordinate of the first point
+	 * @param x2    the x coordinate of the second point
+	 * @param y2    the y coordinate of the second point
+	 * @param color the color of the needle, as ARGB
+	 */
+	public void draw(double x1, double y1, double x2, double y2, int color) {
+		if (markDirty(x1, y1, x2, y2)) {
+			whole.draw(x1, y1, x2, y2, color);
+		}
+	}
+
+	/**
+	 * Returns the region of the image drawn upon since the last call,
+	 * as the union of the bounding boxes of the needles drawn, and
+	 * clears it.
+	 *
+	 * @return the dirty region; {@code null} if nothing has been drawn
+	 */
+	public Rectangle takeDirtyRegion() {
+		if (dirtyMinX == Integer.MAX_VALUE) return null;
+
+		Rectangle region = new Rectangle(dirtyMinX, dirtyMinY, dirtyMaxX - dirtyMinX, dirtyMaxY - dirtyMinY);
+		dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+		dirtyMaxX = dirtyMaxY = Integer.MIN_VALUE;
+		return region;
+	}
+
+	/**
+	 * Stops the render threads. The rasterizer must not be used afterwards.
+	 */
+	public void shutdown() {
+		if (pool != null) pool.shutdownNow();
+	}
+
+	/**
+	 * Sorts the needles of the given batch into the queues of the tiles
+	 * their bounding boxes touch, and adds them to the dirty region.
+	 *
+	 * @param batch the batch of needles
+	 */
+	private void enqueue(NeedleBatch batch) {
+		Arrays.fill(queueSizes, 0);
+		for (int i = 0, n = batch.getSize(); i < n; i++) {
+			double x1 = batch.x1[i];
+			double y1 = batch.y1[i];
+			double x2 = batch.x2[i];
+			double y2 = batch.y2[i];
+			if (!markDirty(x1, y1, x2, y2)) continue;
+
+			int firstColumn = tile(Math.min(x1, x2) - MARGIN);
+			int lastColumn = Math.min(columns - 1, tile(Math.max(x1, x2) + MARGIN));
+			int firstRow = tile(Math.min(y1, y2) - MARGIN);
+			int lastRow = Math.min(rows - 1, tile(Math.max(y1, y2) + MARGIN));
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int t = row * columns + firstColumn, end = row * columns + lastColumn; t <= end; t++) {
+					int size = queueSizes[t];
+					if (size == queues[t].length) {
+						queues[t] = Arrays.copyOf(queues[t], size * 2);
+					}
+					queues[t][size] = i;
+					queueSizes[t] = size + 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Claims and draws the tiles of the current batch, one at a time,
+	 * until none are left. Run by every render thread.
+	 */
+	private void drawTiles() {
+		NeedleBatch batch = current;
+		int t;
+		while ((t = nextTile.getAndIncrement()) < tiles.length) {
+			NeedleRasterizer tile = tiles[t];
+			int[] queue = queues[t];
+			for (int k = 0, n = queueSizes[t]; k < n; k++) {
+				int i = queue[k];
+				tile.draw(batch.x1[i], batch.y1[i], batch.x2[i], batch.y2[i], batch.color[i]);
+			}
+		}
+	}
+
+	/**
+	 * Adds the bounding box of the given needle, clipped to the image,
+	 * to the dirty region.
+	 *
+	 * @param x1 the x coordinate of the first point
+	 * @param y1 the y coordinate of the first point
+	 * @param x2 the x coordinate of the second point
+	 * @param y2 the y coordinate of the second point
+	 * @return true if the needle may be visible at all
+	 */
+	private boolean markDirty(double x1, double y1, double x2, double y2) {
+		double left = Math.min(x1, x2) - MARGIN;
+		double right = Math.max(x1, x2) + MARGIN;
+		double top = Math.min(y1, y2) - MARGIN;
+		double bottom = Math.max(y1, y2) + MARGIN;
+		// also rejects NaN coordinates
+		if (!(right >= 0 && left < width && bottom >= 0 && top < height)) return false;
+
+		dirtyMinX = Math.min(dirtyMinX, left <= 0 ? 0 : (int) left);
+		dirtyMinY = Math.min(dirtyMinY, top <= 0 ? 0 : (int) top);
+		dirtyMaxX = Math.max(dirtyMaxX, right >= width ? width : (int) right + 1);
+		dirtyMaxY = Math.max(dirtyMaxY, bottom >= height ? height : (int) bottom + 1);
+		return true;
+	}
+
+	/**
+	 * Returns the row or column of the tiles containing the given
+	 * coordinate, clamped to the first one.
+	 *
+	 * @param coordinate the coordinate
+	 * @return the index of the row or column
+	 */
+	private static int tile(double coordinate) {
+		return coordinate <= 0 ? 0 : (int) coordinate / TILE_SIZE;
+	}
+}
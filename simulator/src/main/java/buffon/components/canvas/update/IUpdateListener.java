@@ -9,8 +9,7 @@ public interface IUpdateListener {
 	 * Called to indicate that an update of simulator
 	 * values has occurred.
 	 *
-	 * @param provider the simulator whose values has
-	 *                 been changed
+	 * @param snapshot the current simulator values
 	 */
-	void update(IUpdateProvider provider);
-}
\ No newline at end of file
+	void update(UpdateSnapshot snapshot);
+}
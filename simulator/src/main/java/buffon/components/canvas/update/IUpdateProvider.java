@@ -25,7 +25,23 @@ public interface IUpdateProvider {
 
 	/**
 	 * Notifies all active listeners that a change has been
-	 * made to the simulator values.
+	 * made to the simulator values. Notifications are coalesced:
+	 * the listeners are notified at most {@link #setMaxUpdateRate}
+	 * times per second, regardless of how often this is called.
 	 */
 	void notifyListeners();
-}
\ No newline at end of file
+
+	/**
+	 * Sets the maximum number of notifications per second.
+	 *
+	 * @param maxRate the maximum number of notifications per second
+	 */
+	void setMaxUpdateRate(double maxRate);
+
+	/**
+	 * Returns the current simulator values.
+	 *
+	 * @return a snapshot of the simulator values
+	 */
+	UpdateSnapshot getSnapshot();
+}
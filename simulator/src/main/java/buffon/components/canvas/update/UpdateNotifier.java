@@ -0,0 +1,116 @@
+package buffon.components.canvas.update;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the update notifications of an {@link IUpdateProvider}.
+ * Any number of update requests is turned into at most a given number
+ * of notifications per second; a request which arrives too early is
+ * deferred, so the listeners always end up with the latest values.
+ * <p>
+ * Must be used on the event dispatch thread only.
+ */
+public class UpdateNotifier {
+
+	/**
+	 * The default maximum number of notifications per second.
+	 */
+	public static final double DEFAULT_MAX_RATE = 10;
+
+	/**
+	 * The source of the snapshots; called once per notification.
+	 */
+	private Supplier<UpdateSnapshot> source;
+
+	/**
+	 * A list of update listeners, waiting to be notified for changes of
+	 * the simulator values.
+	 */
+	private List<IUpdateListener> listeners = new ArrayList<>();
+
+	/**
+	 * The minimum time between two notifications, in nanoseconds.
+	 */
+	private long minInterval;
+
+	/**
+	 * The time of the last notification, in nanoseconds.
+	 */
+	private long lastNotification;
+
+	/**
+	 * The timer for the deferred notification.
+	 */
+	private Timer deferred = new Timer(0, e -> notifyNow());
+
+	/**
+	 * Creates a new notifier with the {@link #DEFAULT_MAX_RATE}.
+	 *
+	 * @param source the source of the snapshots
+	 */
+	public UpdateNotifier(Supplier<UpdateSnapshot> source) {
+		this.source = source;
+		deferred.setRepeats(false);
+		setMaxRate(DEFAULT_MAX_RATE);
+		lastNotification = System.nanoTime() - minInterval;
+	}
+
+	/**
+	 * Sets the maximum number of notifications per second.
+	 *
+	 * @param maxRate the maximum number of notifications per second
+	 */
+	public void setMaxRate(double maxRate) {
+		if (!(maxRate > 0)) throw new IllegalArgumentException();
+		minInterval = (long) (1e9 / maxRate);
+	}
+
+	/**
+	 * Adds the specified listener to the list.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addListener(IUpdateListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes the specified listener from the list.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(IUpdateListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Requests the listeners to be notified. They are notified right
+	 * away if the last notification was long enough ago; otherwise a
+	 * single deferred notification is scheduled.
+	 */
+	public void requestUpdate() {
+		if (deferred.isRunning()) return;
+
+		long wait = lastNotification + minInterval - System.nanoTime();
+		if (wait <= 0) {
+			notifyNow();
+		} else {
+			deferred.setInitialDelay((int) Math.max(1, wait / 1_000_000));
+			deferred.start();
+		}
+	}
+
+	/**
+	 * Notifies the listeners with a fresh snapshot.
+	 */
+	private void notifyNow() {
+		lastNotification = System.nanoTime();
+		UpdateSnapshot snapshot = source.get();
+		for (IUpdateListener l : listeners) {
+			l.update(snapshot);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package buffon.components.canvas.update;
+
+/**
+ * An immutable snapshot of the simulator values, passed to the
+ * {@link IUpdateListener}s.
+ */
+public final class UpdateSnapshot {
+
+	/**
+	 * The number of needles which have been thrown.
+	 */
+	private final long thrownCount;
+
+	/**
+	 * The number of needles which have landed on one of the lines.
+	 */
+	private final long hitCount;
+
+	/**
+	 * The approximate value of π, or -1 if not yet known.
+	 */
+	private final double pi;
+
+	/**
+	 * The number of needles thrown per second since the previous snapshot.
+	 */
+	private final double rate;
+
+	/**
+	 * The half-width of the 95% confidence interval of π, or infinity
+	 * if not yet known.
+	 */
+	private final double halfWidth;
+
+	/**
+	 * Creates a new snapshot.
+	 *
+	 * @param thrownCount the number of thrown needles
+	 * @param hitCount    the number of needles landed on a line
+	 * @param pi          the approximate value of π, or -1 if not yet known
+	 * @param rate        the number of needles thrown per second
+	 * @param halfWidth   the half-width of the 95% confidence interval of π
+	 */
+	public UpdateSnapshot(long thrownCount, long hitCount, double pi, double rate, double halfWidth) {
+		this.thrownCount = thrownCount;
+		this.hitCount = hitCount;
+		this.pi = pi;
+		this.rate = rate;
+		this.halfWidth = halfWidth;
+	}
+
+	/**
+	 * Returns the number of needles which have been thrown.
+	 *
+	 * @return the number of thrown needles
+	 */
+	public long getThrownCount() {
+		return thrownCount;
+	}
+
+	/**
+	 * Returns the number of needles which have landed on one of the lines.
+	 *
+	 * @return the number of needles landed on a line
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the approximate value of π, or -1 if not yet known.
+	 *
+	 * @return the approximate value of π
+	 */
+	public double getPI() {
+		return pi;
+	}
+
+	/**
+	 * Returns the approximate value of π, rounded to the given number
+	 * of decimal places, or "-" if not yet known.
+	 *
+	 * @param digits the number of decimal places
+	 * @return the formatted value of π
+	 */
+	public String getPI(int digits) {
+		if (Math.abs(pi + 1) < 10E-8) return "-";
+		return String.format("%." + digits + "f", pi);
+	}
+
+	/**
+	 * Returns the half-width of the 95% confidence interval of π, or
+	 * infinity if not yet known.
+	 *
+	 * @return the half-width of the confidence interval
+	 */
+	public double getHalfWidth() {
+		return halfWidth;
+	}
+
+	/**
+	 * Returns the number of needles thrown per second since the
+	 * previous snapshot.
+	 *
+	 * @return the simulation rate
+	 */
+	public double getRate() {
+		return rate;
+	}
+}
@@ -2,6 +2,7 @@ package buffon.components.controls;
 
 import buffon.Main;
 import buffon.components.canvas.Canvas;
+import buffon.components.canvas.RenderMode;
 import buffon.components.controls.buttons.ImageButton;
 import buffon.dialog.TestDialog;
 import buffon.util.Util;
@@ -9,9 +10,12 @@ import buffon.util.Util;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JSlider;
 import javax.swing.SwingUtilities;
 import javax.swing.border.TitledBorder;
@@ -22,6 +26,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.Hashtable;
 
 /**
@@ -60,11 +65,31 @@ public class Controls extends JPanel {
 	 */
 	private JButton throwButton;
 
+	/**
+	 * The progress bar of the needles being thrown.
+	 */
+	private JProgressBar throwProgress;
+
+	/**
+	 * The button for resuming the last saved simulation.
+	 */
+	private JButton resumeButton;
+
 	/**
 	 * The settings button.
 	 */
 	private ImageButton settingsButton;
 
+	/**
+	 * The check box toggling the accelerated painting of the canvas.
+	 */
+	private JCheckBox acceleratedBox;
+
+	/**
+	 * The combo box selecting the render mode of the canvas.
+	 */
+	private JComboBox<RenderMode> renderModeBox;
+
 	/**
 	 * The constraints object for the {@link GridBagLayout}.
 	 */
@@ -204,21 +229,55 @@ public class Controls extends JPanel {
 	}
 
 	/**
-	 * Creates the panel holding the settings button.
+	 * Creates the panel holding the settings button, the
+	 * {@link #renderModeBox} and the {@link #acceleratedBox}.
 	 *
-	 * @return the panel holding the settings button
+	 * @return the panel holding the settings
 	 * @throws IOException if an I/O error occurs
 	 */
 	private JPanel createSettingsPanel() throws IOException {
-		JPanel settingsPanel = new JPanel();
+		JPanel settingsPanel = new JPanel(new GridBagLayout());
 		c = new GridBagConstraints();
 
+		renderModeBox = createRenderModeBox();
+		changeConstraints(0, 0, new Insets(0, 0, 5, 0));
+		settingsPanel.add(renderModeBox, c);
+
+		acceleratedBox = createAcceleratedBox();
+		changeConstraints(0, 1, new Insets(0, 0, 10, 0));
+		settingsPanel.add(acceleratedBox, c);
+
 		settingsButton = createSettingsButton();
-		settingsPanel.add(settingsButton);
+		changeConstraints(0, 2, new Insets(0, 0, 0, 0));
+		settingsPanel.add(settingsButton, c);
 
 		return settingsPanel;
 	}
 
+	/**
+	 * Creates the {@link #renderModeBox}.
+	 *
+	 * @return the {@link #renderModeBox}
+	 */
+	private JComboBox<RenderMode> createRenderModeBox() {
+		JComboBox<RenderMode> renderModeBox = new JComboBox<>(RenderMode.values());
+		renderModeBox.setToolTipText("Draw every needle, or the density of the crossing ones");
+		renderModeBox.addActionListener(l -> canvas.setRenderMode((RenderMode) renderModeBox.getSelectedItem()));
+		return renderModeBox;
+	}
+
+	/**
+	 * Creates the {@link #acceleratedBox}.
+	 *
+	 * @return the {@link #acceleratedBox}
+	 */
+	private JCheckBox createAcceleratedBox() {
+		JCheckBox acceleratedBox = new JCheckBox("Accelerated", true);
+		acceleratedBox.setToolTipText("Keep the canvas in video memory, if supported");
+		acceleratedBox.addActionListener(l -> canvas.setAccelerated(acceleratedBox.isSelected()));
+		return acceleratedBox;
+	}
+
 
 	/**
 	 * Creates the {@link #settingsButton}.
@@ -247,14 +306,24 @@ public class Controls extends JPanel {
 	 * @return the throw panel
 	 */
 	private JPanel createThrowPanel() {
-		JPanel throwPanel = new JPanel();
+		JPanel throwPanel = new JPanel(new GridBagLayout());
 		c = new GridBagConstraints();
 
 		throwButton = createThrowButton();
-		changeConstraints(0, 1, new Insets(0, 0, 10, 0));
+		changeConstraints(0, 0, new Insets(0, 0, 5, 0));
 		c.weighty = 1;
 		throwPanel.add(throwButton, c);
 
+		throwProgress = new JProgressBar(0, 100);
+		throwProgress.setVisible(false);
+		throwProgress.setPreferredSize(new Dimension(100, 10));
+		changeConstraints(0, 1, new Insets(0, 0, 10, 0));
+		throwPanel.add(throwProgress, c);
+
+		resumeButton = createResumeButton();
+		changeConstraints(0, 2, new Insets(0, 0, 10, 0));
+		throwPanel.add(resumeButton, c);
+
 		return throwPanel;
 	}
 
@@ -274,9 +343,11 @@ public class Controls extends JPanel {
 					JOptionPane.PLAIN_MESSAGE
 			);
 
-			Integer count;
+			if (countString == null) return; // cancelled
+
+			long count;
 			try {
-				count = Integer.parseInt(countString);
+				count = Long.parseLong(countString.trim().replace("_", "").replace(",", ""));
 				if (count < 0) throw new NumberFormatException();
 			} catch (NumberFormatException ex) {
 				Util.displayErrorDialog("Please, enter a valid number!", "Error");
@@ -288,6 +359,32 @@ public class Controls extends JPanel {
 		return throwButton;
 	}
 
+	/**
+	 * Creates the button for resuming the last saved simulation.
+	 *
+	 * @return the resume button
+	 */
+	private JButton createResumeButton() {
+		JButton resumeButton = new JButton("Resume Last Run");
+		resumeButton.addActionListener(l -> resumeLastRun());
+		return resumeButton;
+	}
+
+	/**
+	 * Resumes the last saved simulation on the canvas, reporting a
+	 * failure in an error dialog. Must be called on the Event Dispatch
+	 * Thread.
+	 */
+	public void resumeLastRun() {
+		try {
+			canvas.resume();
+		} catch (NoSuchFileException ex) {
+			Util.displayErrorDialog("No simulation to resume could be found!", "Error");
+		} catch (IOException ex) {
+			Util.displayErrorDialog(ex.getMessage(), "Error");
+		}
+	}
+
 	/**
 	 * Changes the specified attributes of the {@link #c} object.
 	 *
@@ -322,5 +419,21 @@ public class Controls extends JPanel {
 	 */
 	public void setCanvas(Canvas canvas) {
 		this.canvas = canvas;
+		acceleratedBox.setSelected(canvas.isAccelerated());
+		renderModeBox.setSelectedItem(canvas.getRenderMode());
+		// a resumed session restores its own render mode
+		canvas.addPropertyChangeListener(Canvas.RENDER_MODE_PROPERTY,
+				e -> renderModeBox.setSelectedItem(e.getNewValue()));
+
+		canvas.getThrower().addPropertyChangeListener(e -> {
+			if ("progress".equals(e.getPropertyName())) {
+				throwProgress.setValue((int) e.getNewValue());
+			} else if ("throwing".equals(e.getPropertyName())) {
+				boolean throwing = (boolean) e.getNewValue();
+				throwProgress.setValue(0);
+				throwProgress.setVisible(throwing);
+				revalidate();
+			}
+		});
 	}
 }
@@ -7,6 +7,7 @@ import buffon.dialog.options.DoubleSpinnerOption;
 import buffon.dialog.options.IntSpinnerOption;
 import buffon.dialog.options.ObjectWrapper;
 import buffon.dialog.options.OptionsProvider;
+import buffon.dialog.options.TextFieldOption;
 import buffon.util.SpringUtilities;
 import buffon.util.Util;
 
@@ -118,7 +119,19 @@ public class TestDialog extends JDialog {
 				wrapper
 		);
 
-		JPanel panel = createOptionsPanel(noOfLines, needleLength, noOfDigits);
+		wrapper = OptionsProvider.getOption(OptionsProvider.CHECKPOINT_FILE);
+		TextFieldOption checkpointFile = new TextFieldOption("Checkpoint file: ",
+				TextFieldOption.createJTextField((String) wrapper.getValue()),
+				wrapper
+		);
+
+		wrapper = OptionsProvider.getOption(OptionsProvider.CHECKPOINT_INTERVAL);
+		IntSpinnerOption checkpointInterval = new IntSpinnerOption("Checkpoint every (s, 0 = off): ",
+				IntSpinnerOption.createJSpinner((int) wrapper.getValue(), 0, 3600, 1),
+				wrapper
+		);
+
+		JPanel panel = createOptionsPanel(noOfLines, needleLength, noOfDigits, checkpointFile, checkpointInterval);
 		settingsPanel.add(panel, BorderLayout.NORTH);
 
 
@@ -157,6 +170,7 @@ public class TestDialog extends JDialog {
 		Canvas c = Main.getCanvas();
 		c.resetContext();
 		c.calculateNeedleLength();
+		c.updateCheckpointTimer();
 		dispose();
 
 		try {
@@ -3,6 +3,7 @@ package buffon.dialog.options;
 import buffon.util.Util;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.prefs.BackingStoreException;
@@ -15,6 +16,8 @@ public class OptionsProvider {
 	public static final String NUMBER_OF_STRIPS = "noOfStrips";
 	public static final String NUMBER_OF_DIGITS = "noOfDigits";
 	public static final String LENGTH_FACTOR = "lengthFactor";
+	public static final String CHECKPOINT_FILE = "checkpointFile";
+	public static final String CHECKPOINT_INTERVAL = "checkpointInterval";
 
 	private static Preferences prefs = Preferences.userNodeForPackage(OptionsProvider.class);
 
@@ -50,6 +53,8 @@ public class OptionsProvider {
 			options.put(NUMBER_OF_STRIPS, new ObjectWrapper(Integer.parseInt(prefs.get(NUMBER_OF_STRIPS, ""))));
 			options.put(NUMBER_OF_DIGITS, new ObjectWrapper(Integer.parseInt(prefs.get(NUMBER_OF_DIGITS, ""))));
 			options.put(LENGTH_FACTOR, new ObjectWrapper(Double.parseDouble(prefs.get(LENGTH_FACTOR, ""))));
+			options.put(CHECKPOINT_FILE, new ObjectWrapper(prefs.get(CHECKPOINT_FILE, getDefaultCheckpointFile())));
+			options.put(CHECKPOINT_INTERVAL, new ObjectWrapper(Integer.parseInt(prefs.get(CHECKPOINT_INTERVAL, "5"))));
 		} catch (NumberFormatException ignorable) {
 		}
 	}
@@ -77,9 +82,20 @@ public class OptionsProvider {
 		// (included); for example, a length factor of 0.5 means
 		// that the needle will be long {@code 0.5 * distance}.
 		setOption(LENGTH_FACTOR, 0.50);
+
+		// The file the simulation of the canvas is saved to
+		setOption(CHECKPOINT_FILE, getDefaultCheckpointFile());
+
+		// The time between two saves of a running simulation,
+		// in seconds; 0 saves it only when paused and on exit
+		setOption(CHECKPOINT_INTERVAL, 5);
+	}
+
+	private static String getDefaultCheckpointFile() {
+		return Paths.get(System.getProperty("user.home"), ".buffon-checkpoint").toString();
 	}
 
-	private static void setOption(String name, Object value) {
+	public static void setOption(String name, Object value) {
 		ObjectWrapper wrapper = options.get(name);
 		if (wrapper == null) {
 			wrapper = new ObjectWrapper(value);
@@ -0,0 +1,49 @@
+package buffon.dialog.options;
+
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+public class TextFieldOption extends AbstractOption<String> {
+
+	private JTextField textField;
+
+	private ObjectWrapper optionWrapper;
+
+	public TextFieldOption(String name, JTextField textField, ObjectWrapper optionWrapper) {
+		this.name = name;
+		this.textField = textField;
+		this.optionWrapper = optionWrapper;
+
+		textField.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				optionWrapper.setValue(getValue());
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				optionWrapper.setValue(getValue());
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				optionWrapper.setValue(getValue());
+			}
+		});
+	}
+
+	public static JTextField createJTextField(String value) {
+		return new JTextField(value, 20);
+	}
+
+	@Override
+	public String getValue() {
+		return textField.getText();
+	}
+
+	@Override
+	public JTextField getComponent() {
+		return textField;
+	}
+}
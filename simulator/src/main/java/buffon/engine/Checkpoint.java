@@ -0,0 +1,596 @@
+package buffon.engine;
+
+import buffon.engine.kernel.KernelType;
+import buffon.engine.random.IRandomGenerator;
+import buffon.engine.random.RandomType;
+import buffon.engine.sampling.SamplingMode;
+import buffon.util.AtomicFile;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * An immutable snapshot of a simulation, from which it can be resumed
+ * after a crash or a restart: the parameters of the simulation, the
+ * counters and the state of the convergence tracker, the elapsed time,
+ * the stopping rule of the run (its target number of needles and its
+ * target precision), and the states of the generators, i.e. of the master generator and,
+ * if taken during a parallel run, of every worker's generator together
+ * with the number of needles the worker has yet to throw.
+ * <p>
+ * Checkpoints are stored in a compact binary file (under two hundred
+ * bytes, plus 25 bytes per worker), protected by a CRC-32 checksum and
+ * written atomically (see {@link AtomicFile}), so a crash while writing
+ * never leaves a corrupted or half-written checkpoint.
+ * <p>
+ * A resumed run continues the saved generators' streams, so a run of
+ * independently sampled needles (the uniform and disc sampling modes,
+ * with the geometric or the reduced kernel) produces exactly the same
+ * counts as if it had never been interrupted. The internal state of
+ * the other samplers and of the vectorised kernel is not saved; they
+ * are re-seeded from the restored generators, which keeps the estimate
+ * statistically valid.
+ */
+public class Checkpoint {
+
+	/**
+	 * The magic number at the start of a checkpoint file ("BUFN").
+	 */
+	private static final int MAGIC = 0x4255464e;
+
+	/**
+	 * The version of the file format. Version 1 did not hold the
+	 * target precision; it is still read, as a run without one.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The width of the area onto which the needles are thrown.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the area onto which the needles are thrown.
+	 */
+	private final int height;
+
+	/**
+	 * The number of strips.
+	 */
+	private final int strips;
+
+	/**
+	 * The needle length, as a portion of the distance between the lines.
+	 */
+	private final double lengthFactor;
+
+	/**
+	 * The type of the generators.
+	 */
+	private final RandomType generator;
+
+	/**
+	 * The sampling mode of the simulation.
+	 */
+	private final SamplingMode samplingMode;
+
+	/**
+	 * The kernel type of the simulation.
+	 */
+	private final KernelType kernelType;
+
+	/**
+	 * The state of the convergence tracker, holding the counters.
+	 */
+	private final long[] counts;
+
+	/**
+	 * The time spent simulating, in nanoseconds.
+	 */
+	private final long elapsedNanos;
+
+	/**
+	 * The total number of needles the run aims for, or 0 if unbounded.
+	 */
+	private final long target;
+
+	/**
+	 * The target half-width of the confidence interval, at which the
+	 * run stops, or 0 if none.
+	 */
+	private final double precision;
+
+	/**
+	 * The confidence level of the {@link #precision}, or 0 if none.
+	 */
+	private final double confidence;
+
+	/**
+	 * The state of the master generator.
+	 */
+	private final long[] random;
+
+	/**
+	 * The states of the workers' generators; empty if no parallel run
+	 * was in progress.
+	 */
+	private final long[][] workers;
+
+	/**
+	 * The numbers of needles the workers have yet to throw.
+	 */
+	private final long[] remaining;
+
+	/**
+	 * Creates a new checkpoint. The arrays are not copied.
+	 *
+	 * @param engine       the engine holding the parameters and the counters
+	 * @param elapsedNanos the time spent simulating, in nanoseconds
+	 * @param target       the total number of needles the run aims for,
+	 *                     or 0 if unbounded
+	 * @param precision    the target half-width of the confidence interval,
+	 *                     or 0 if none
+	 * @param confidence   the confidence level of the precision, or 0 if none
+	 * @param random       the master generator
+	 * @param workers      the states of the workers' generators
+	 * @param remaining    the numbers of needles the workers have yet to throw
+	 */
+	Checkpoint(SimulationEngine engine, long elapsedNanos, long target, double precision, double confidence,
+			   IRandomGenerator random, long[][] workers, long[] remaining) {
+		this(engine.getWidth(), engine.getHeight(), engine.getLineGrid().getStrips(), engine.getLengthFactor(),
+				RandomType.of(random), engine.getSamplingMode(), engine.getKernelType(),
+				engine.getConvergenceTracker().getState(), elapsedNanos, target, precision, confidence,
+				random.getState(), workers, remaining);
+	}
+
+	/**
+	 * Creates a new checkpoint from its contents. The arrays are not copied.
+	 *
+	 * @param width        the width of the area
+	 * @param height       the height of the area
+	 * @param strips       the number of strips
+	 * @param lengthFactor the needle length, as a portion of the distance between the lines
+	 * @param generator    the type of the generators
+	 * @param samplingMode the sampling mode
+	 * @param kernelType   the kernel type
+	 * @param counts       the state of the convergence tracker
+	 * @param elapsedNanos the time spent simulating, in nanoseconds
+	 * @param target       the total number of needles the run aims for, or 0 if unbounded
+	 * @param precision    the target half-width of the confidence interval, or 0 if none
+	 * @param confidence   the confidence level of the precision, or 0 if none
+	 * @param random       the state of the master generator
+	 * @param workers      the states of the workers' generators
+	 * @param remaining    the numbers of needles the workers have yet to throw
+	 */
+	private Checkpoint(int width, int height, int strips, double lengthFactor,
+					   RandomType generator, SamplingMode samplingMode, KernelType kernelType,
+					   long[] counts, long elapsedNanos, long target, double precision, double confidence,
+					   long[] random, long[][] workers, long[] remaining) {
+		this.width = width;
+		this.height = height;
+		this.strips = strips;
+		this.lengthFactor = lengthFactor;
+		this.generator = generator;
+		this.samplingMode = samplingMode;
+		this.kernelType = kernelType;
+		this.counts = counts;
+		this.elapsedNanos = elapsedNanos;
+		this.target = target;
+		this.precision = precision;
+		this.confidence = confidence;
+		this.random = random;
+		this.workers = workers;
+		this.remaining = remaining;
+	}
+
+	/**
+	 * Takes a checkpoint of the given engine, which is not running in
+	 * parallel; its own generator is saved as the master generator.
+	 * Should be called from the thread merging the needles into the
+	 * engine, so that the counters are consistent.
+	 *
+	 * @param engine       the engine
+	 * @param elapsedNanos the time spent simulating, in nanoseconds
+	 * @param target       the total number of needles the run aims for,
+	 *                     or 0 if unbounded
+	 * @return a new checkpoint
+	 */
+	public static Checkpoint of(SimulationEngine engine, long elapsedNanos, long target) {
+		return new Checkpoint(engine, elapsedNanos, target, 0, 0, engine.getRandom(), new long[0][], new long[0]);
+	}
+
+	/**
+	 * Creates a new engine with the saved parameters and counters. The
+	 * engine has a freshly seeded generator of the saved type; the saved
+	 * master generator is obtained through {@link #createRandom()}.
+	 *
+	 * @return a new engine
+	 */
+	public SimulationEngine createEngine() {
+		SimulationEngine engine = new SimulationEngine(generator.create(System.nanoTime()));
+		engine.setGeometry(width, height, strips, lengthFactor);
+		engine.setSamplingMode(samplingMode);
+		engine.setKernelType(kernelType);
+		engine.restore(counts);
+		return engine;
+	}
+
+	/**
+	 * Checks whether the simulation can be resumed. Only the generators
+	 * are saved, so the sampling modes and kernels which keep a state of
+	 * their own would start over instead of going on (see
+	 * {@link SamplingMode#isResumable()} and {@link KernelType#isResumable()}).
+	 *
+	 * @throws IOException if the simulation cannot be resumed
+	 */
+	public void checkResumable() throws IOException {
+		if (!samplingMode.isResumable()) {
+			throw new IOException("A run of the " + samplingMode + " sampling mode cannot be resumed:"
+					+ " its sequence would start over and repeat its points");
+		}
+		if (!kernelType.isResumable()) {
+			throw new IOException("A run of the " + kernelType + " kernel cannot be resumed:"
+					+ " the generators of its lanes are not saved");
+		}
+	}
+
+	/**
+	 * Creates the saved master generator.
+	 *
+	 * @return a new generator, continuing the master generator's stream
+	 */
+	public IRandomGenerator createRandom() {
+		return generator.restore(random);
+	}
+
+	/**
+	 * Returns the number of workers which were in the middle of a
+	 * parallel run.
+	 *
+	 * @return the number of workers, or 0 if no parallel run was in progress
+	 */
+	public int getWorkerCount() {
+		return workers.length;
+	}
+
+	/**
+	 * Creates the saved generator of the given worker.
+	 *
+	 * @param i the index of the worker
+	 * @return a new generator, continuing the worker's stream
+	 */
+	IRandomGenerator createWorkerRandom(int i) {
+		return generator.restore(workers[i]);
+	}
+
+	/**
+	 * Returns the number of needles the given worker has yet to throw.
+	 *
+	 * @param i the index of the worker
+	 * @return the number of remaining needles
+	 */
+	long getRemaining(int i) {
+		return remaining[i];
+	}
+
+	/**
+	 * Writes this checkpoint to the given file, atomically replacing
+	 * any previous checkpoint.
+	 *
+	 * @param path the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		AtomicFile.write(path, this::write);
+	}
+
+	/**
+	 * Writes this checkpoint to the given stream, followed by its
+	 * checksum. Other data may follow the checkpoint in the stream.
+	 *
+	 * @param stream the stream
+	 * @throws IOException if the stream cannot be written to
+	 */
+	public void write(OutputStream stream) throws IOException {
+		CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+		DataOutputStream out = new DataOutputStream(checked);
+		writeTo(out);
+		out.flush();
+		out.writeLong(checked.getChecksum().getValue());
+		out.flush();
+	}
+
+	/**
+	 * Reads a checkpoint from the given file. Any data following the
+	 * checkpoint in the file is ignored.
+	 *
+	 * @param path the file
+	 * @return the checkpoint
+	 * @throws IOException if the file cannot be read, or is not a valid checkpoint
+	 */
+	public static Checkpoint read(Path path) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+			return read(in);
+		} catch (IOException e) {
+			throw new IOException(path + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from the given stream, leaving the stream
+	 * positioned right after it.
+	 *
+	 * @param stream the stream
+	 * @return the checkpoint
+	 * @throws IOException if the stream cannot be read, or does not
+	 *                     hold a valid checkpoint
+	 */
+	public static Checkpoint read(InputStream stream) throws IOException {
+		try {
+			CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+			DataInputStream in = new DataInputStream(checked);
+			Checkpoint checkpoint = readFrom(in);
+
+			long checksum = checked.getChecksum().getValue();
+			if (in.readLong() != checksum) throw new IOException("Corrupted checkpoint");
+			return checkpoint;
+		} catch (EOFException e) {
+			throw new IOException("Truncated checkpoint", e);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid checkpoint", e);
+		}
+	}
+
+	/**
+	 * Writes the contents of this checkpoint to the given stream.
+	 *
+	 * @param out the stream
+	 * @throws IOException if the stream cannot be written to
+	 */
+	private void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeInt(strips);
+		out.writeDouble(lengthFactor);
+		out.writeUTF(generator.name());
+		out.writeUTF(samplingMode.name());
+		out.writeUTF(kernelType.name());
+
+		writeLongs(out, counts);
+		out.writeLong(elapsedNanos);
+		out.writeLong(target);
+		out.writeDouble(precision);
+		out.writeDouble(confidence);
+
+		writeLongs(out, random);
+		out.writeInt(workers.length);
+		for (int i = 0; i < workers.length; i++) {
+			writeLongs(out, workers[i]);
+			out.writeLong(remaining[i]);
+		}
+	}
+
+	/**
+	 * Reads the contents of a checkpoint from the given stream.
+	 *
+	 * @param in the stream
+	 * @return the checkpoint
+	 * @throws IOException if the stream cannot be read from, or does
+	 *                     not hold a checkpoint
+	 */
+	private static Checkpoint readFrom(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) throw new IOException("Not a checkpoint");
+		int version = in.readInt();
+		if (version != 1 && version != VERSION) throw new IOException("Unsupported checkpoint version " + version);
+
+		int width = in.readInt();
+		int height = in.readInt();
+		int strips = in.readInt();
+		double lengthFactor = in.readDouble();
+		RandomType generator = RandomType.valueOf(in.readUTF());
+		SamplingMode samplingMode = SamplingMode.valueOf(in.readUTF());
+		KernelType kernelType = KernelType.valueOf(in.readUTF());
+
+		long[] counts = readLongs(in);
+		long elapsedNanos = in.readLong();
+		long target = in.readLong();
+		double precision = version >= 2 ? in.readDouble() : 0;
+		double confidence = version >= 2 ? in.readDouble() : 0;
+
+		long[] random = readLongs(in);
+		// no workers when no parallel run was in progress; checked before allocating
+		int n = in.readInt();
+		if (n < 0 || n > ParallelSimulation.MAX_THREADS) throw new IOException("Invalid checkpoint");
+		long[][] workers = new long[n][];
+		long[] remaining = new long[n];
+		for (int i = 0; i < n; i++) {
+			workers[i] = readLongs(in);
+			remaining[i] = in.readLong();
+		}
+
+		Checkpoint checkpoint = new Checkpoint(width, height, strips, lengthFactor, generator, samplingMode,
+				kernelType, counts, elapsedNanos, target, precision, confidence, random, workers, remaining);
+		checkpoint.validate();
+		return checkpoint;
+	}
+
+	/**
+	 * Checks that the contents of this checkpoint can be restored.
+	 *
+	 * @throws IllegalArgumentException if they cannot
+	 */
+	private void validate() {
+		if (width <= 0 || height <= 0 || strips < 1 || !(lengthFactor >= 0)) throw new IllegalArgumentException();
+		if (!(precision >= 0) || (precision > 0 && !(confidence > 0 && confidence < 1))) {
+			throw new IllegalArgumentException();
+		}
+		new ConvergenceTracker().setState(counts);
+		generator.restore(random);
+		for (int i = 0; i < workers.length; i++) {
+			generator.restore(workers[i]);
+			if (remaining[i] < 0) throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Writes the given array, preceded by its length.
+	 *
+	 * @param out    the stream
+	 * @param values the array
+	 * @throws IOException if the stream cannot be written to
+	 */
+	private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+		out.writeByte(values.length);
+		for (long v : values) {
+			out.writeLong(v);
+		}
+	}
+
+	/**
+	 * Reads an array written by {@link #writeLongs}.
+	 *
+	 * @param in the stream
+	 * @return the array
+	 * @throws IOException if the stream cannot be read from
+	 */
+	private static long[] readLongs(DataInputStream in) throws IOException {
+		long[] values = new long[in.readUnsignedByte()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readLong();
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the width of the area onto which the needles are thrown.
+	 *
+	 * @return the width of the area
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the area onto which the needles are thrown.
+	 *
+	 * @return the height of the area
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of strips.
+	 *
+	 * @return the number of strips
+	 */
+	public int getStrips() {
+		return strips;
+	}
+
+	/**
+	 * Returns the needle length, as a portion of the distance between
+	 * the lines.
+	 *
+	 * @return the length factor
+	 */
+	public double getLengthFactor() {
+		return lengthFactor;
+	}
+
+	/**
+	 * Returns the type of the generators.
+	 *
+	 * @return the generator type
+	 */
+	public RandomType getGenerator() {
+		return generator;
+	}
+
+	/**
+	 * Returns the sampling mode of the simulation.
+	 *
+	 * @return the sampling mode
+	 */
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	/**
+	 * Returns the kernel type of the simulation.
+	 *
+	 * @return the kernel type
+	 */
+	public KernelType getKernelType() {
+		return kernelType;
+	}
+
+	/**
+	 * Returns the saved state of the convergence tracker, holding the
+	 * counters (see {@link SimulationEngine#restore(long[])}).
+	 *
+	 * @return a copy of the state of the convergence tracker
+	 */
+	public long[] getCounts() {
+		return counts.clone();
+	}
+
+	/**
+	 * Returns the number of needles thrown before the checkpoint.
+	 *
+	 * @return the number of needles thrown
+	 */
+	public long getThrownCount() {
+		return counts[1];
+	}
+
+	/**
+	 * Returns the time spent simulating before the checkpoint.
+	 *
+	 * @return the elapsed time, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns the total number of needles the run aims for.
+	 *
+	 * @return the target number of needles, or 0 if unbounded
+	 */
+	public long getTarget() {
+		return target;
+	}
+
+	/**
+	 * Returns the target half-width of the confidence interval, at
+	 * which the run stops.
+	 *
+	 * @return the target precision, or 0 if none
+	 */
+	public double getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Returns the confidence level of the target precision.
+	 *
+	 * @return the confidence level, or 0 if there is no target precision
+	 */
+	public double getConfidence() {
+		return confidence;
+	}
+}
@@ -0,0 +1,167 @@
+package buffon.engine;
+
+/**
+ * An immutable view of the precision of the estimate of π: its
+ * standard error, a confidence interval around it and the number
+ * of needles needed to reach a given precision.
+ */
+public final class Convergence {
+
+	/**
+	 * The number of needles the estimate is based upon.
+	 */
+	private final long thrownCount;
+
+	/**
+	 * The approximate value of π, or -1 if not yet known.
+	 */
+	private final double pi;
+
+	/**
+	 * The standard error of the estimate, or infinity if not yet known.
+	 */
+	private final double standardError;
+
+	/**
+	 * The confidence level of the interval.
+	 */
+	private final double confidence;
+
+	/**
+	 * The standard normal quantile of the confidence level.
+	 */
+	private final double z;
+
+	/**
+	 * Creates a new convergence view.
+	 *
+	 * @param thrownCount   the number of needles the estimate is based upon
+	 * @param pi            the approximate value of π, or -1 if not yet known
+	 * @param standardError the standard error of the estimate
+	 * @param confidence    the confidence level of the interval, from (0, 1)
+	 */
+	public Convergence(long thrownCount, double pi, double standardError, double confidence) {
+		this.thrownCount = thrownCount;
+		this.pi = pi;
+		this.standardError = standardError;
+		this.confidence = confidence;
+		this.z = quantile(0.5 + confidence / 2);
+	}
+
+	/**
+	 * Returns the number of needles the estimate is based upon.
+	 *
+	 * @return the number of thrown needles
+	 */
+	public long getThrownCount() {
+		return thrownCount;
+	}
+
+	/**
+	 * Returns the approximate value of π, or -1 if not yet known.
+	 *
+	 * @return the approximate value of π
+	 */
+	public double getPI() {
+		return pi;
+	}
+
+	/**
+	 * Returns the standard error of the estimate, or infinity if not
+	 * yet known.
+	 *
+	 * @return the standard error
+	 */
+	public double getStandardError() {
+		return standardError;
+	}
+
+	/**
+	 * Returns the confidence level of the interval.
+	 *
+	 * @return the confidence level
+	 */
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Returns the half-width of the confidence interval.
+	 *
+	 * @return the half-width of the confidence interval
+	 */
+	public double getHalfWidth() {
+		return z * standardError;
+	}
+
+	/**
+	 * Returns the lower bound of the confidence interval.
+	 *
+	 * @return the lower bound
+	 */
+	public double getLower() {
+		return pi - getHalfWidth();
+	}
+
+	/**
+	 * Returns the upper bound of the confidence interval.
+	 *
+	 * @return the upper bound
+	 */
+	public double getUpper() {
+		return pi + getHalfWidth();
+	}
+
+	/**
+	 * Returns the estimated total number of needles needed for the
+	 * half-width of the confidence interval to drop below the given
+	 * precision, or {@link Long#MAX_VALUE} if it cannot be estimated yet.
+	 *
+	 * @param epsilon the target half-width
+	 * @return the estimated total number of needles
+	 */
+	public long getNeedlesFor(double epsilon) {
+		if (!(epsilon > 0)) throw new IllegalArgumentException();
+		if (Double.isInfinite(standardError)) return Long.MAX_VALUE;
+
+		// the standard error decreases with the square root of the number of needles
+		double ratio = getHalfWidth() / epsilon;
+		double needed = Math.ceil(thrownCount * ratio * ratio);
+		return needed >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) needed;
+	}
+
+	/**
+	 * Returns the quantile function of the standard normal distribution,
+	 * using the rational approximation by Acklam (relative error below
+	 * 1.2e-9).
+	 *
+	 * @param p the probability, from (0, 1)
+	 * @return the quantile of the given probability
+	 */
+	static double quantile(double p) {
+		if (!(p > 0 && p < 1)) throw new IllegalArgumentException();
+
+		final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+				1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+				6.680131188771972e+01, -1.328068155288572e+01};
+		final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+				-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+				3.754408661907416e+00};
+
+		double low = 0.02425;
+		if (p < low) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if (p > 1 - low) {
+			return -quantile(1 - p);
+		}
+		double q = p - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+				/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+}
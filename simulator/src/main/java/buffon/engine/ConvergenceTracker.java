@@ -0,0 +1,275 @@
+package buffon.engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks the precision of the estimate of π as the batches of needles
+ * are merged, in constant time per batch.
+ * <p>
+ * The estimate is {@code π = c / p}, where {@code p} is the proportion
+ * of hits and {@code c = 2l/d}. Its standard error follows from the
+ * variance of {@code p} through the delta method:
+ * {@code SE(π) = c / p² * SE(p)}. The variance of {@code p} is either
+ * the binomial one, {@code p(1 - p) / n}, which holds when the needles
+ * are independent, or the batch-means one, estimated from the spread
+ * of the hit proportions of the merged batches, which also holds for
+ * correlated sampling schemes.
+ * <p>
+ * The totals are kept in a single object, swapped by every merge with
+ * a compare-and-set, so merging never takes a lock and the totals are
+ * always read consistently, from any thread. A merge allocates that
+ * one object and nothing else, however often it has to retry; the
+ * needles are merged per batch, never one by one.
+ */
+public class ConvergenceTracker {
+
+	/**
+	 * The minimum number of batches for the batch-means variance.
+	 */
+	public static final int MIN_BATCHES = 10;
+
+	/**
+	 * A flag denoting whether to use the batch-means variance.
+	 */
+	private volatile boolean batchMeans;
+
+	/**
+	 * The totals of the merged batches, replaced as a whole by every merge.
+	 */
+	private final AtomicReference<Totals> totals = new AtomicReference<>(new Totals());
+
+	/**
+	 * Adds a batch of needles. Lock-free: concurrent merges retry
+	 * until their totals are swapped in, and never block each other.
+	 *
+	 * @param thrown the number of needles in the batch
+	 * @param hits   the number of hits in the batch
+	 */
+	public void add(long thrown, long hits) {
+		if (thrown == 0) return;
+
+		// not yet published, so it can be refilled on every retry
+		Totals next = new Totals();
+		Totals current;
+		do {
+			current = totals.get();
+			next.set(current, thrown, hits);
+		} while (!totals.compareAndSet(current, next));
+	}
+
+	/**
+	 * Sets whether the batch-means variance should be used instead
+	 * of the binomial one, i.e. whether the needles are not independent.
+	 *
+	 * @param batchMeans true to use the batch-means variance
+	 */
+	public void setBatchMeans(boolean batchMeans) {
+		this.batchMeans = batchMeans;
+	}
+
+	/**
+	 * Returns the current precision of the estimate.
+	 *
+	 * @param ratio      the ratio {@code 2l/d} of the needle length
+	 *                   and the distance between the lines
+	 * @param confidence the confidence level of the interval
+	 * @return the current precision of the estimate
+	 */
+	public Convergence getConvergence(double ratio, double confidence) {
+		Totals t = totals.get();
+		long batches = t.batches;
+		long thrown = t.thrown;
+		long hits = t.hits;
+		if (hits == 0) {
+			return new Convergence(thrown, -1, Double.POSITIVE_INFINITY, confidence);
+		}
+
+		double n = thrown;
+		double p = hits / n;
+		double pi = ratio / p;
+
+		double varianceP;
+		if (!batchMeans) {
+			varianceP = p * (1 - p) / n;
+		} else if (batches >= MIN_BATCHES) {
+			// sum of (h_i - p * n_i)^2, expanded so that it can be kept incrementally
+			double squares = t.getHitsSquared() - 2 * p * t.getThrownHits() + p * p * t.getThrownSquared();
+			double mean = n / batches;
+			varianceP = Math.max(squares, 0) / (batches * (batches - 1) * mean * mean);
+		} else {
+			varianceP = Double.POSITIVE_INFINITY;
+		}
+
+		double standardError = pi / p * Math.sqrt(varianceP);
+		return new Convergence(thrown, pi, standardError, confidence);
+	}
+
+	/**
+	 * Returns the current state of this tracker, so that it can be
+	 * saved and later restored through {@link #setState(long[])}. The
+	 * state holds the number of batches, the needles thrown, the hits
+	 * and the raw bits of the three sums.
+	 *
+	 * @return the state of this tracker
+	 */
+	public long[] getState() {
+		Totals t = totals.get();
+		return new long[]{
+				t.batches, t.thrown, t.hits,
+				Double.doubleToRawLongBits(t.getThrownSquared()),
+				Double.doubleToRawLongBits(t.getThrownHits()),
+				Double.doubleToRawLongBits(t.getHitsSquared())
+		};
+	}
+
+	/**
+	 * Restores a state previously returned by {@link #getState()}.
+	 * Whether the batch-means variance is used is not part of the
+	 * state. Batches merged concurrently with the restore are lost.
+	 *
+	 * @param state the state to restore
+	 * @throws IllegalArgumentException if the state is not valid
+	 */
+	public void setState(long[] state) {
+		if (state.length != 6 || state[0] < 0 || state[1] < 0 || state[2] < 0 || state[2] > state[1]) {
+			throw new IllegalArgumentException();
+		}
+		Totals t = new Totals();
+		t.batches = state[0];
+		t.thrown = state[1];
+		t.hits = state[2];
+		t.sumThrownSquared = Double.longBitsToDouble(state[3]);
+		t.sumThrownHits = Double.longBitsToDouble(state[4]);
+		t.sumHitsSquared = Double.longBitsToDouble(state[5]);
+		totals.set(t);
+	}
+
+	/**
+	 * Resets the tracker. Batches merged concurrently with the reset
+	 * are lost.
+	 */
+	public void reset() {
+		totals.set(new Totals());
+	}
+
+	/**
+	 * Returns the compensation of the rounding error of a single
+	 * Kahan-Babuška (Neumaier) summation step {@code t = sum + value}.
+	 *
+	 * @param sum   the running sum
+	 * @param value the added value
+	 * @param t     the rounded result of the addition
+	 * @return the low-order bits lost by the addition
+	 */
+	private static double compensation(double sum, double value, double t) {
+		return Math.abs(sum) >= Math.abs(value) ? (sum - t) + value : (value - t) + sum;
+	}
+
+	/**
+	 * The totals of the merged batches. Never modified once published,
+	 * so a reader always sees the totals of a whole number of batches.
+	 * The three sums are compensated, so that their error does not grow
+	 * with the number of batches.
+	 */
+	private static class Totals {
+
+		/**
+		 * The number of merged batches.
+		 */
+		private long batches;
+
+		/**
+		 * The total number of needles.
+		 */
+		private long thrown;
+
+		/**
+		 * The total number of hits.
+		 */
+		private long hits;
+
+		/**
+		 * The sum of the squared batch sizes.
+		 */
+		private double sumThrownSquared;
+
+		/**
+		 * The compensation of {@link #sumThrownSquared}.
+		 */
+		private double compThrownSquared;
+
+		/**
+		 * The sum of the products of the batch sizes and hits.
+		 */
+		private double sumThrownHits;
+
+		/**
+		 * The compensation of {@link #sumThrownHits}.
+		 */
+		private double compThrownHits;
+
+		/**
+		 * The sum of the squared batch hits.
+		 */
+		private double sumHitsSquared;
+
+		/**
+		 * The compensation of {@link #sumHitsSquared}.
+		 */
+		private double compHitsSquared;
+
+		/**
+		 * Sets these totals to the given ones plus a batch. Must only
+		 * be called before these totals are published.
+		 *
+		 * @param other  the totals to add the batch to
+		 * @param thrown the number of needles in the batch
+		 * @param hits   the number of hits in the batch
+		 */
+		void set(Totals other, long thrown, long hits) {
+			this.batches = other.batches + 1;
+			this.thrown = other.thrown + thrown;
+			this.hits = other.hits + hits;
+
+			double n = thrown;
+			double h = hits;
+			double nn = n * n;
+			double nh = n * h;
+			double hh = h * h;
+			sumThrownSquared = other.sumThrownSquared + nn;
+			compThrownSquared = other.compThrownSquared + compensation(other.sumThrownSquared, nn, sumThrownSquared);
+			sumThrownHits = other.sumThrownHits + nh;
+			compThrownHits = other.compThrownHits + compensation(other.sumThrownHits, nh, sumThrownHits);
+			sumHitsSquared = other.sumHitsSquared + hh;
+			compHitsSquared = other.compHitsSquared + compensation(other.sumHitsSquared, hh, sumHitsSquared);
+		}
+
+		/**
+		 * Returns the compensated sum of the squared batch sizes.
+		 *
+		 * @return the sum of the squared batch sizes
+		 */
+		double getThrownSquared() {
+			return sumThrownSquared + compThrownSquared;
+		}
+
+		/**
+		 * Returns the compensated sum of the products of the batch
+		 * sizes and hits.
+		 *
+		 * @return the sum of the products of the batch sizes and hits
+		 */
+		double getThrownHits() {
+			return sumThrownHits + compThrownHits;
+		}
+
+		/**
+		 * Returns the compensated sum of the squared batch hits.
+		 *
+		 * @return the sum of the squared batch hits
+		 */
+		double getHitsSquared() {
+			return sumHitsSquared + compHitsSquared;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package buffon.engine;
+
+/**
+ * An immutable, consistent view of the simulator values at some
+ * point in time.
+ */
+public final class Estimate {
+
+	/**
+	 * The number of needles which have been thrown.
+	 */
+	private final long thrownCount;
+
+	/**
+	 * The number of needles which have landed on one of the lines.
+	 */
+	private final long hitCount;
+
+	/**
+	 * The approximate value of π, or -1 if no needle has landed on
+	 * a line yet.
+	 */
+	private final double pi;
+
+	/**
+	 * Creates a new estimate.
+	 *
+	 * @param thrownCount the number of thrown needles
+	 * @param hitCount    the number of needles landed on a line
+	 * @param pi          the approximate value of π, or -1 if not yet known
+	 */
+	public Estimate(long thrownCount, long hitCount, double pi) {
+		this.thrownCount = thrownCount;
+		this.hitCount = hitCount;
+		this.pi = pi;
+	}
+
+	/**
+	 * Returns the number of needles which have been thrown.
+	 *
+	 * @return the number of thrown needles
+	 */
+	public long getThrownCount() {
+		return thrownCount;
+	}
+
+	/**
+	 * Returns the number of needles which have landed on one of the lines.
+	 *
+	 * @return the number of needles landed on a line
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the approximate value of π, or -1 if no needle has
+	 * landed on a line yet.
+	 *
+	 * @return the approximate value of π
+	 */
+	public double getPI() {
+		return pi;
+	}
+}
@@ -0,0 +1,73 @@
+package buffon.engine;
+
+/**
+ * The set of equally spaced vertical lines onto which the needles
+ * are thrown. The first line is at x = 0 and the last one is at
+ * x = {@code strips * distance}.
+ * <p>
+ * Since the lines are equally spaced, whether a needle crosses a
+ * line can be checked in constant time, regardless of the number
+ * of lines: a needle crosses a line if and only if there is an
+ * integer {@code k} such that {@code k * distance} lies between
+ * the x coordinates of the needle's endpoints.
+ */
+public class LineGrid {
+
+	/**
+	 * The distance between the lines.
+	 */
+	private final double distance;
+
+	/**
+	 * The number of strips, i.e. the number of lines minus one.
+	 */
+	private final int strips;
+
+	/**
+	 * Creates a new grid of lines.
+	 *
+	 * @param distance the distance between the lines
+	 * @param strips   the number of strips
+	 */
+	public LineGrid(double distance, int strips) {
+		if (!(distance > 0) || strips < 1) throw new IllegalArgumentException();
+		this.distance = distance;
+		this.strips = strips;
+	}
+
+	/**
+	 * Checks whether a needle with the given x coordinates of its
+	 * endpoints crosses (or touches) one of the lines.
+	 *
+	 * @param x1 the x coordinate of the first point
+	 * @param x2 the x coordinate of the second point
+	 * @return true if the needle crosses a line; false otherwise
+	 */
+	public boolean crosses(double x1, double x2) {
+		double min = Math.min(x1, x2) / distance;
+		double max = Math.max(x1, x2) / distance;
+
+		// the first and the last line the needle could reach
+		double first = Math.max(Math.ceil(min), 0);
+		double last = Math.min(Math.floor(max), strips);
+		return first <= last;
+	}
+
+	/**
+	 * Returns the distance between the lines.
+	 *
+	 * @return the distance between the lines
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the number of strips, i.e. the number of lines minus one.
+	 *
+	 * @return the number of strips
+	 */
+	public int getStrips() {
+		return strips;
+	}
+}
@@ -0,0 +1,436 @@
+package buffon.engine;
+
+import buffon.engine.random.IRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throws needles on all available cores. A run of N needles is split
+ * between a fixed pool of workers, each of which has its own copy of
+ * the engine (and therefore its own pseudo-random number generator)
+ * and its own thrown/hit counters. The counters are merged into the
+ * target engine after every {@link #CHECKPOINT_SIZE} needles.
+ * <p>
+ * The workers' generators are split, in order, from a single master
+ * generator, so the results of a run are reproducible from the seed
+ * of the master generator, regardless of thread scheduling.
+ * <p>
+ * A run can also be stopped as soon as a target precision of the
+ * estimate is reached (see {@link #runUntil}); each worker checks
+ * the precision after every checkpoint, so all workers halt within
+ * one batch of the target being reached.
+ * <p>
+ * A consistent {@link Checkpoint} of a run can be taken at any time,
+ * from any thread (see {@link #checkpoint}); a run interrupted by a
+ * crash can then be finished through {@link #resume}. Every worker
+ * merges its counters and records the state of its generator at once,
+ * so a checkpoint loses at most the current batch of each worker.
+ */
+public class ParallelSimulation {
+
+	/**
+	 * The number of needles a worker throws before merging its
+	 * counters into the target engine.
+	 */
+	public static final int CHECKPOINT_SIZE = 1 << 20;
+
+	/**
+	 * The maximum number of worker threads, which bounds the number of
+	 * workers a {@link Checkpoint} may hold.
+	 */
+	public static final int MAX_THREADS = 4096;
+
+	/**
+	 * The engine whose geometry is used and into which the
+	 * results are merged.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private int threads;
+
+	/**
+	 * The master generator, from which the workers' generators are split.
+	 */
+	private IRandomGenerator random;
+
+	/**
+	 * The pool executing the workers.
+	 */
+	private ExecutorService pool;
+
+	/**
+	 * The lock making the workers' merges and the checkpoints atomic.
+	 */
+	private final Object progressLock = new Object();
+
+	/**
+	 * The states of the current run's workers' generators, as of their
+	 * last merge; empty if no run is in progress. Guarded by
+	 * {@link #progressLock}.
+	 */
+	private long[][] workerStates = new long[0][];
+
+	/**
+	 * The numbers of needles the current run's workers have yet to throw,
+	 * as of their last merge. Guarded by {@link #progressLock}.
+	 */
+	private long[] workerRemaining = new long[0];
+
+	/**
+	 * Creates a new parallel simulation which uses all available cores
+	 * and whose master generator is split from the engine's generator.
+	 *
+	 * @param engine the engine to merge the results into
+	 */
+	public ParallelSimulation(SimulationEngine engine) {
+		this(engine, Runtime.getRuntime().availableProcessors(), engine.getRandom().split());
+	}
+
+	/**
+	 * Creates a new parallel simulation.
+	 *
+	 * @param engine  the engine to merge the results into
+	 * @param threads the number of worker threads, at most {@link #MAX_THREADS}
+	 * @param random  the master generator
+	 */
+	public ParallelSimulation(SimulationEngine engine, int threads, IRandomGenerator random) {
+		if (threads < 1 || threads > MAX_THREADS) throw new IllegalArgumentException();
+		this.engine = engine;
+		this.threads = threads;
+		this.random = random;
+		this.pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "needle-worker");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Throws the given number of needles, split evenly between the
+	 * workers, and blocks until all of them have been thrown.
+	 *
+	 * @param count the number of needles to throw
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void run(long count) throws InterruptedException {
+		run(count, null);
+	}
+
+	/**
+	 * Throws needles until the half-width of the confidence interval
+	 * of π drops below the given precision, or until the given number
+	 * of needles has been thrown, whichever comes first. The workers
+	 * overshoot the target by at most one batch of
+	 * {@link #CHECKPOINT_SIZE} needles each.
+	 * <p>
+	 * Unlike {@link #run(long)}, the number of needles thrown depends on
+	 * the scheduling of the workers, so it is not exactly reproducible.
+	 *
+	 * @param epsilon    the target half-width of the confidence interval
+	 * @param confidence the confidence level of the interval, from (0, 1)
+	 * @param maxCount   the maximum number of needles to throw
+	 * @return true if the target precision has been reached
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean runUntil(double epsilon, double confidence, long maxCount) throws InterruptedException {
+		if (!(epsilon > 0) || !(confidence > 0 && confidence < 1)) throw new IllegalArgumentException();
+
+		Target target = new Target(epsilon, confidence);
+		if (!target.check()) {
+			run(maxCount, target);
+		}
+		return target.reached;
+	}
+
+	/**
+	 * Throws the given number of needles, split evenly between the
+	 * workers, stopping early if the given target is reached.
+	 *
+	 * @param count  the number of needles to throw
+	 * @param target the target precision, or {@code null} for none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void run(long count, Target target) throws InterruptedException {
+		List<Worker> workers = new ArrayList<>(threads);
+		long share = count / threads;
+		long remainder = count % threads;
+		synchronized (progressLock) {
+			for (int i = 0; i < threads; i++) {
+				long n = share + (i < remainder ? 1 : 0);
+				workers.add(new Worker(i, new SimulationEngine(engine, random.split()), n, target));
+			}
+		}
+		execute(workers);
+	}
+
+	/**
+	 * Finishes the parallel run which was in progress when the given
+	 * checkpoint was taken, continuing every worker's generator and
+	 * share of the needles. The engine must have been restored from
+	 * the same checkpoint (see {@link Checkpoint#createEngine()}). Does
+	 * nothing if no parallel run was in progress.
+	 *
+	 * @param checkpoint the checkpoint
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void resume(Checkpoint checkpoint) throws InterruptedException {
+		resume(checkpoint, null);
+	}
+
+	/**
+	 * Finishes the parallel run which was in progress when the given
+	 * checkpoint was taken, like {@link #resume(Checkpoint)}, but stops
+	 * as soon as the half-width of the confidence interval of π drops
+	 * below the given precision, like {@link #runUntil}.
+	 *
+	 * @param checkpoint the checkpoint
+	 * @param epsilon    the target half-width of the confidence interval
+	 * @param confidence the confidence level of the interval, from (0, 1)
+	 * @return true if the target precision has been reached
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean resumeUntil(Checkpoint checkpoint, double epsilon, double confidence) throws InterruptedException {
+		if (!(epsilon > 0) || !(confidence > 0 && confidence < 1)) throw new IllegalArgumentException();
+
+		Target target = new Target(epsilon, confidence);
+		if (!target.check()) {
+			resume(checkpoint, target);
+		}
+		return target.reached;
+	}
+
+	/**
+	 * Finishes the parallel run of the given checkpoint, stopping early
+	 * if the given target is reached.
+	 *
+	 * @param checkpoint the checkpoint
+	 * @param target     the target precision, or {@code null} for none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void resume(Checkpoint checkpoint, Target target) throws InterruptedException {
+		List<Worker> workers = new ArrayList<>(checkpoint.getWorkerCount());
+		for (int i = 0; i < checkpoint.getWorkerCount(); i++) {
+			SimulationEngine local = new SimulationEngine(engine, checkpoint.createWorkerRandom(i));
+			workers.add(new Worker(i, local, checkpoint.getRemaining(i), target));
+		}
+		execute(workers);
+	}
+
+	/**
+	 * Executes the given workers and blocks until all of them have
+	 * finished, recording their progress for the checkpoints meanwhile.
+	 *
+	 * @param workers the workers
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private void execute(List<Worker> workers) throws InterruptedException {
+		synchronized (progressLock) {
+			workerStates = new long[workers.size()][];
+			workerRemaining = new long[workers.size()];
+			for (Worker w : workers) {
+				w.record(w.n);
+			}
+		}
+
+		try {
+			for (Future<Void> f : pool.invokeAll(workers)) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		} finally {
+			synchronized (progressLock) {
+				workerStates = new long[0][];
+				workerRemaining = new long[0];
+			}
+		}
+	}
+
+	/**
+	 * Takes a consistent checkpoint of the simulation: of the engine's
+	 * counters, of the master generator and, if a run is in progress,
+	 * of every worker's generator and remaining share of the needles.
+	 * May be called from any thread.
+	 *
+	 * @param elapsedNanos the time spent simulating, in nanoseconds
+	 * @param target       the total number of needles the run aims for,
+	 *                     or 0 if unbounded
+	 * @return a new checkpoint
+	 */
+	public Checkpoint checkpoint(long elapsedNanos, long target) {
+		return checkpoint(elapsedNanos, target, 0, 0);
+	}
+
+	/**
+	 * Takes a consistent checkpoint of the simulation, like
+	 * {@link #checkpoint(long, long)}, of a run which also stops on a
+	 * target precision.
+	 *
+	 * @param elapsedNanos the time spent simulating, in nanoseconds
+	 * @param target       the total number of needles the run aims for,
+	 *                     or 0 if unbounded
+	 * @param precision    the target half-width of the confidence interval,
+	 *                     or 0 if none
+	 * @param confidence   the confidence level of the precision
+	 * @return a new checkpoint
+	 */
+	public Checkpoint checkpoint(long elapsedNanos, long target, double precision, double confidence) {
+		synchronized (progressLock) {
+			long[][] states = new long[workerStates.length][];
+			for (int i = 0; i < states.length; i++) {
+				states[i] = workerStates[i].clone();
+			}
+			return new Checkpoint(engine, elapsedNanos, target, precision, precision > 0 ? confidence : 0,
+					random, states, workerRemaining.clone());
+		}
+	}
+
+	/**
+	 * Shuts down the worker pool. The simulation cannot be run
+	 * afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * A single worker, throwing its share of the needles on its
+	 * own copy of the engine.
+	 */
+	private class Worker implements Callable<Void> {
+
+		/**
+		 * The index of the worker within its run.
+		 */
+		private int index;
+
+		/**
+		 * The worker's own copy of the engine.
+		 */
+		private SimulationEngine local;
+
+		/**
+		 * The number of needles to throw.
+		 */
+		private long n;
+
+		/**
+		 * The target precision, or {@code null} for none.
+		 */
+		private Target target;
+
+		/**
+		 * The number of needles thrown since the last checkpoint.
+		 */
+		private long thrown;
+
+		/**
+		 * The number of hits since the last checkpoint.
+		 */
+		private long hits;
+
+		/**
+		 * Creates a new worker.
+		 *
+		 * @param index  the index of the worker within its run
+		 * @param local  the worker's own copy of the engine
+		 * @param n      the number of needles to throw
+		 * @param target the target precision, or {@code null} for none
+		 */
+		Worker(int index, SimulationEngine local, long n, Target target) {
+			this.index = index;
+			this.local = local;
+			this.n = n;
+			this.target = target;
+		}
+
+		@Override
+		public Void call() {
+			long remaining = n;
+			while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+				if (target != null && target.reached) break;
+
+				int batch = (int) Math.min(remaining, CHECKPOINT_SIZE);
+				hits += local.countHits(batch);
+				thrown += batch;
+				remaining -= batch;
+
+				synchronized (progressLock) {
+					engine.merge(thrown, hits);
+					record(remaining);
+				}
+				thrown = 0;
+				hits = 0;
+
+				if (target != null) target.check();
+			}
+			return null;
+		}
+
+		/**
+		 * Records the progress of this worker for the checkpoints. Must
+		 * be called while holding the {@link #progressLock}.
+		 *
+		 * @param remaining the number of needles yet to throw
+		 */
+		void record(long remaining) {
+			workerStates[index] = local.getRandom().getState();
+			workerRemaining[index] = remaining;
+		}
+	}
+
+	/**
+	 * The target precision of a run, shared by all of its workers.
+	 */
+	private class Target {
+
+		/**
+		 * The target half-width of the confidence interval.
+		 */
+		private final double epsilon;
+
+		/**
+		 * The confidence level of the interval.
+		 */
+		private final double confidence;
+
+		/**
+		 * A flag denoting whether the target has been reached.
+		 */
+		private volatile boolean reached;
+
+		/**
+		 * Creates a new target.
+		 *
+		 * @param epsilon    the target half-width of the confidence interval
+		 * @param confidence the confidence level of the interval
+		 */
+		Target(double epsilon, double confidence) {
+			this.epsilon = epsilon;
+			this.confidence = confidence;
+		}
+
+		/**
+		 * Checks whether the engine's estimate has reached the target.
+		 *
+		 * @return true if the target has been reached
+		 */
+		boolean check() {
+			if (!reached && engine.getConvergence(confidence).getHalfWidth() < epsilon) {
+				reached = true;
+			}
+			return reached;
+		}
+	}
+}
@@ -0,0 +1,515 @@
+package buffon.engine;
+
+import buffon.engine.kernel.INeedleKernel;
+import buffon.engine.kernel.KernelType;
+import buffon.engine.random.IRandomGenerator;
+import buffon.engine.random.RandomType;
+import buffon.engine.sampling.INeedleSampler;
+import buffon.engine.sampling.SamplingMode;
+import buffon.model.NeedleBatch;
+
+/**
+ * The simulation engine of the Buffon's needle problem. The engine
+ * generates the needles, scores them against the lines and keeps
+ * track of the simulator values. It does not depend on any graphical
+ * component, so it can be used both by the canvas (which draws the
+ * batches it generates) and on its own, without a display.
+ */
+public class SimulationEngine {
+
+	/**
+	 * The number of needles generated and scored at once by the
+	 * kernels.
+	 */
+	public static final int BATCH_SIZE = 4096;
+
+	/**
+	 * The width of the area onto which the needles are thrown.
+	 */
+	private int width;
+
+	/**
+	 * The height of the area onto which the needles are thrown.
+	 */
+	private int height;
+
+	/**
+	 * The distance between the lines.
+	 */
+	private double distance;
+
+	/**
+	 * The lines to check against when a needle is thrown.
+	 */
+	private LineGrid lines;
+
+	/**
+	 * The length of the thrown needles.
+	 */
+	private double needleLength;
+
+	/**
+	 * Pseudo-random number generator object.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * The strategy for sampling the needles.
+	 */
+	private SamplingMode samplingMode = SamplingMode.UNIFORM;
+
+	/**
+	 * The sampler of the needles, using the {@link #rand} generator.
+	 */
+	private INeedleSampler sampler;
+
+	/**
+	 * The live simulator values.
+	 */
+	private SimulationStatistics statistics = new SimulationStatistics();
+
+	/**
+	 * The tracker of the precision of the estimate.
+	 */
+	private ConvergenceTracker convergence = new ConvergenceTracker();
+
+	/**
+	 * The type of the kernel used for throwing needles in the hot path.
+	 */
+	private KernelType kernelType = KernelType.GEOMETRIC;
+
+	/**
+	 * The kernel used for throwing needles in the hot path, using
+	 * the {@link #rand} generator.
+	 */
+	private INeedleKernel kernel;
+
+	/**
+	 * Creates a new simulation engine with a randomly seeded generator.
+	 */
+	public SimulationEngine() {
+		this(RandomType.SPLITTABLE.create(System.nanoTime()));
+	}
+
+	/**
+	 * Creates a new simulation engine which uses the given generator.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public SimulationEngine(IRandomGenerator rand) {
+		setRandom(rand);
+	}
+
+	/**
+	 * Creates a new simulation engine with the same geometry as the
+	 * given engine, but with its own pseudo-random number generator
+	 * and its own (zeroed) simulator values.
+	 *
+	 * @param template the engine whose geometry to copy
+	 * @param rand     the new engine's generator
+	 */
+	public SimulationEngine(SimulationEngine template, IRandomGenerator rand) {
+		this.width = template.width;
+		this.height = template.height;
+		this.distance = template.distance;
+		this.lines = template.lines;
+		this.needleLength = template.needleLength;
+		this.samplingMode = template.samplingMode;
+		this.kernelType = template.kernelType;
+		setRandom(rand);
+	}
+
+	/**
+	 * Sets the geometry of the simulation: the size of the area onto
+	 * which the needles are thrown, the number of strips and the
+	 * length of the needles. The simulator values are not affected.
+	 *
+	 * @param width          the width of the area
+	 * @param height         the height of the area
+	 * @param numberOfStrips the number of strips, i.e. the number of
+	 *                       lines minus one
+	 * @param lengthFactor   the needle length, as a portion of the
+	 *                       distance between the lines
+	 */
+	public void setGeometry(int width, int height, int numberOfStrips, double lengthFactor) {
+		if (width <= 0 || height <= 0 || numberOfStrips < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.width = width;
+		this.height = height;
+
+		distance = (double) width / numberOfStrips;
+		lines = new LineGrid(distance, numberOfStrips);
+
+		setLengthFactor(lengthFactor);
+	}
+
+	/**
+	 * Calculates the length of the needle from the given length factor.
+	 *
+	 * @param lengthFactor the needle length, as a portion of the
+	 *                     distance between the lines
+	 */
+	public void setLengthFactor(double lengthFactor) {
+		needleLength = lengthFactor * distance;
+	}
+
+	/**
+	 * Throws the given number of needles through the engine's kernel,
+	 * without updating the simulator values. Used by the workers of a {@link ParallelSimulation},
+	 * which keep their own counters.
+	 *
+	 * @param count the number of needles to throw
+	 * @return the number of needles which have landed on a line
+	 */
+	public int countHits(int count) {
+		return kernel.countHits(count);
+	}
+
+	/**
+	 * Adds the given values, computed elsewhere (e.g. by a parallel
+	 * worker), to the simulator values of this engine. The counters
+	 * are updated lock-free, the convergence tracker in constant time;
+	 * may be called from any thread.
+	 *
+	 * @param thrown the number of thrown needles to add
+	 * @param hits   the number of hits to add
+	 */
+	public void merge(long thrown, long hits) {
+		statistics.add(thrown, hits);
+		convergence.add(thrown, hits);
+	}
+
+	/**
+	 * Fills the given batch with the given number of randomly
+	 * generated needles, sampled by the current sampling mode,
+	 * each with a random color. Does not allocate.
+	 *
+	 * @param batch the batch to fill
+	 * @param count the number of needles to generate
+	 */
+	public void generateBatch(NeedleBatch batch, int count) {
+		generateBatch(batch, count, true);
+	}
+
+	/**
+	 * Fills the given batch with the given number of randomly
+	 * generated needles, sampled by the current sampling mode.
+	 * Does not allocate.
+	 * <p>
+	 * Batches which are never drawn should skip the colors: each takes
+	 * three draws from the generator, more than the needle itself.
+	 *
+	 * @param batch      the batch to fill
+	 * @param count      the number of needles to generate
+	 * @param withColors true to give the needles random colors; false
+	 *                   to leave the colors of the batch as they are
+	 */
+	public void generateBatch(NeedleBatch batch, int count, boolean withColors) {
+		batch.setSize(count);
+		double halfLength = needleLength / 2;
+
+		sampler.sample(batch, count, width, height, lines.getStrips());
+		boolean directions = sampler.samplesDirections();
+
+		for (int i = 0; i < count; i++) {
+			double x = batch.x[i];
+			double y = batch.y[i];
+
+			double xLen, yLen;
+			if (directions) {
+				xLen = halfLength * batch.dx[i];
+				yLen = halfLength * batch.dy[i];
+			} else {
+				double angle = batch.angle[i];
+				xLen = halfLength * Math.cos(angle);
+				yLen = halfLength * Math.sin(angle);
+			}
+
+			batch.x1[i] = x - xLen;
+			batch.y1[i] = y - yLen;
+			batch.x2[i] = x + xLen;
+			batch.y2[i] = y + yLen;
+			if (!withColors) continue;
+
+			int r = rand.nextInt(256);
+			int g = rand.nextInt(256);
+			int b = rand.nextInt(256);
+			batch.color[i] = 0xff000000 | r << 16 | g << 8 | b;
+		}
+	}
+
+	/**
+	 * Scores the needles of the given batch in place, marking the
+	 * needles which have landed on a line. Does not allocate.
+	 *
+	 * @param batch the batch to score
+	 * @return the number of needles which have landed on a line
+	 */
+	public int scoreBatch(NeedleBatch batch) {
+		int hits = 0;
+		for (int i = 0, n = batch.getSize(); i < n; i++) {
+			boolean hit = landedOnLine(batch.x1[i], batch.x2[i]);
+			batch.hit[i] = hit;
+			if (hit) hits++;
+		}
+		return hits;
+	}
+
+	/**
+	 * Checks whether a needle with the given x coordinates of its
+	 * endpoints has landed on a line.
+	 *
+	 * @param x1 the x coordinate of the first point
+	 * @param x2 the x coordinate of the second point
+	 * @return true if the needle has landed on a line;
+	 * false otherwise
+	 */
+	public boolean landedOnLine(double x1, double x2) {
+		return lines.crosses(x1, x2);
+	}
+
+	/**
+	 * Computes a new value of π from the current simulator values.
+	 *
+	 * @return the approximate value of π, or -1 if no needle has
+	 * landed on a line yet
+	 */
+	public double calculatePI() {
+		return getEstimate().getPI();
+	}
+
+	/**
+	 * Resets the simulator values to their default values. Should not
+	 * be called while needles are being merged into this engine.
+	 */
+	public void reset() {
+		statistics.reset();
+		convergence.reset();
+	}
+
+	/**
+	 * Replaces the simulator values with the ones of a saved state of
+	 * the convergence tracker (see {@link ConvergenceTracker#getState()}),
+	 * e.g. when resuming a run from a {@link Checkpoint}. Should not be
+	 * called while needles are being merged into this engine.
+	 *
+	 * @param state the state of the convergence tracker
+	 * @throws IllegalArgumentException if the state is not valid
+	 */
+	public void restore(long[] state) {
+		convergence.setState(state);
+		statistics.reset();
+		statistics.add(state[1], state[2]);
+	}
+
+	/**
+	 * Returns the pseudo-random number generator of this engine.
+	 *
+	 * @return the pseudo-random number generator
+	 */
+	public IRandomGenerator getRandom() {
+		return rand;
+	}
+
+	/**
+	 * Sets the pseudo-random number generator of this engine.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public void setRandom(IRandomGenerator rand) {
+		this.rand = rand;
+		setSamplingMode(samplingMode);
+		setKernelType(kernelType);
+	}
+
+	/**
+	 * Returns the strategy for sampling the needles.
+	 *
+	 * @return the sampling mode
+	 */
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	/**
+	 * Sets the strategy for sampling the needles. Engines copied from
+	 * this engine (e.g. the parallel workers) use the same strategy.
+	 * The convergence tracker is switched to the batch-means variance
+	 * if the sampled needles are not independent (see
+	 * {@link #updateBatchMeans()}).
+	 *
+	 * @param samplingMode the sampling mode
+	 */
+	public void setSamplingMode(SamplingMode samplingMode) {
+		this.samplingMode = samplingMode;
+		this.sampler = samplingMode.create(rand);
+		updateBatchMeans();
+	}
+
+	/**
+	 * Returns the type of the kernel used by {@link #countHits(int)}.
+	 *
+	 * @return the kernel type
+	 */
+	public KernelType getKernelType() {
+		return kernelType;
+	}
+
+	/**
+	 * Sets the type of the kernel used by {@link #countHits(int)}.
+	 * Engines copied from this engine (e.g. the parallel workers)
+	 * use the same kernel type. The needles thrown one by one, or
+	 * through {@link #generateBatch}, always have full geometry.
+	 * The convergence tracker is switched to the batch-means variance
+	 * if the sampled needles are not independent (see
+	 * {@link #updateBatchMeans()}).
+	 *
+	 * @param kernelType the kernel type
+	 */
+	public void setKernelType(KernelType kernelType) {
+		this.kernelType = kernelType;
+		this.kernel = kernelType.create(this);
+		updateBatchMeans();
+	}
+
+	/**
+	 * Switches the convergence tracker to the batch-means variance if
+	 * the kernel samples the needles through a sampler whose needles
+	 * are not independent, and to the binomial one otherwise.
+	 */
+	private void updateBatchMeans() {
+		// not both created yet, while the generator is being set
+		if (kernel == null || sampler == null) return;
+		convergence.setBatchMeans(kernel.usesSampler() && !sampler.isIndependent());
+	}
+
+	/**
+	 * Returns the width of the area onto which the needles are thrown.
+	 *
+	 * @return the width of the area
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the area onto which the needles are thrown.
+	 *
+	 * @return the height of the area
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the needle length, as a portion of the distance between
+	 * the lines.
+	 *
+	 * @return the length factor
+	 */
+	public double getLengthFactor() {
+		return needleLength / distance;
+	}
+
+	/**
+	 * Returns the lines onto which the needles are thrown.
+	 *
+	 * @return the lines
+	 */
+	public LineGrid getLineGrid() {
+		return lines;
+	}
+
+	/**
+	 * Returns the distance between the lines.
+	 *
+	 * @return the distance between the lines
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the length of the thrown needles.
+	 *
+	 * @return the length of the needles
+	 */
+	public double getNeedleLength() {
+		return needleLength;
+	}
+
+	/**
+	 * Returns the total number of needles which have been thrown.
+	 * May be called from any thread.
+	 *
+	 * @return the total number of needles thrown
+	 */
+	public long getThrownCount() {
+		return statistics.getThrownCount();
+	}
+
+	/**
+	 * Returns the number of needles which have landed on one
+	 * of the lines. May be called from any thread.
+	 *
+	 * @return the number of needles, landed on one of the lines
+	 */
+	public long getHitCount() {
+		return statistics.getHitCount();
+	}
+
+	/**
+	 * Returns the approximate value of π, or -1 if no needle has
+	 * landed on a line yet. May be called from any thread.
+	 *
+	 * @return the approximate value of π
+	 */
+	public double getPI() {
+		return calculatePI();
+	}
+
+	/**
+	 * Returns a consistent view of the simulator values. May be
+	 * called from any thread.
+	 *
+	 * @return the current estimate
+	 */
+	public Estimate getEstimate() {
+		long[] counts = statistics.read();
+		long hits = counts[0];
+		long thrown = counts[1];
+
+		double pi = hits > 0 ? 2 * needleLength / distance * (double) thrown / hits : -1;
+		return new Estimate(thrown, hits, pi);
+	}
+
+	/**
+	 * Returns the current precision of the estimate of π. May be
+	 * called from any thread.
+	 *
+	 * @param confidence the confidence level of the interval, from (0, 1)
+	 * @return the current precision of the estimate
+	 */
+	public Convergence getConvergence(double confidence) {
+		return convergence.getConvergence(2 * needleLength / distance, confidence);
+	}
+
+	/**
+	 * Returns the tracker of the precision of the estimate.
+	 *
+	 * @return the convergence tracker
+	 */
+	public ConvergenceTracker getConvergenceTracker() {
+		return convergence;
+	}
+
+	/**
+	 * Returns the live counters of this engine.
+	 *
+	 * @return the simulator statistics
+	 */
+	public SimulationStatistics getStatistics() {
+		return statistics;
+	}
+}
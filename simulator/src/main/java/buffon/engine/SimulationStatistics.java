@@ -0,0 +1,77 @@
+package buffon.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The live thrown and hit counters of a simulation. The counters are
+ * striped 64-bit adders, so any number of workers can update them
+ * concurrently without locking, and they can be read from any thread.
+ * <p>
+ * The hits of an update are always added after its thrown needles,
+ * and read before them, so a reader never sees a hit whose needle
+ * has not been counted: the counts read are those of all completed
+ * updates, plus at most the thrown needles of the updates in progress.
+ */
+public class SimulationStatistics {
+
+	/**
+	 * The number of needles which have been thrown.
+	 */
+	private final LongAdder thrown = new LongAdder();
+
+	/**
+	 * The number of needles which have landed on one of the lines.
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Adds the given values to the counters.
+	 *
+	 * @param thrown the number of thrown needles to add
+	 * @param hits   the number of hits to add
+	 */
+	public void add(long thrown, long hits) {
+		this.thrown.add(thrown);
+		if (hits != 0) this.hits.add(hits);
+	}
+
+	/**
+	 * Returns the number of needles which have been thrown.
+	 *
+	 * @return the number of thrown needles
+	 */
+	public long getThrownCount() {
+		return thrown.sum();
+	}
+
+	/**
+	 * Returns the number of needles which have landed on one of the lines.
+	 *
+	 * @return the number of needles landed on a line
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Reads both counters consistently, i.e. without counting a hit
+	 * whose needle has not been counted.
+	 *
+	 * @return the hit count at index 0 and the thrown count at index 1
+	 */
+	public long[] read() {
+		long h = hits.sum();
+		long t = thrown.sum();
+		return new long[]{h, t};
+	}
+
+	/**
+	 * Resets the counters to zero. Updates which happen concurrently
+	 * with the reset may be partially lost, so this should only be
+	 * called when no workers are running.
+	 */
+	public void reset() {
+		thrown.reset();
+		hits.reset();
+	}
+}
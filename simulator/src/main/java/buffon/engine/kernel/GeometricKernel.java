@@ -0,0 +1,44 @@
+package buffon.engine.kernel;
+
+import buffon.engine.SimulationEngine;
+import buffon.model.NeedleBatch;
+
+/**
+ * A kernel which throws needles with their full geometry, exactly as
+ * they would be drawn onto the canvas: it generates batches through
+ * the engine (using its sampling mode), without their colors, and
+ * scores them against the lines.
+ */
+public class GeometricKernel implements INeedleKernel {
+
+	/**
+	 * The engine generating and scoring the needles.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * The batch reused for throwing the needles.
+	 */
+	private NeedleBatch batch = new NeedleBatch(SimulationEngine.BATCH_SIZE);
+
+	/**
+	 * Creates a new kernel.
+	 *
+	 * @param engine the engine generating and scoring the needles
+	 */
+	public GeometricKernel(SimulationEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	public int countHits(int count) {
+		int hits = 0;
+		while (count > 0) {
+			int n = Math.min(count, batch.getCapacity());
+			engine.generateBatch(batch, n, false);
+			hits += engine.scoreBatch(batch);
+			count -= n;
+		}
+		return hits;
+	}
+}
@@ -0,0 +1,28 @@
+package buffon.engine.kernel;
+
+/**
+ * The inner loop of a headless run: throws needles and counts the
+ * hits, without keeping the needles. Kernels are not thread-safe;
+ * every engine has its own.
+ */
+public interface INeedleKernel {
+
+	/**
+	 * Throws the given number of needles.
+	 *
+	 * @param count the number of needles to throw
+	 * @return the number of needles which have landed on a line
+	 */
+	int countHits(int count);
+
+	/**
+	 * Checks whether the needles are sampled through the engine's
+	 * sampler, and thus follow its sampling mode. Kernels which always
+	 * sample the needles independently return false.
+	 *
+	 * @return true if the kernel uses the engine's sampler
+	 */
+	default boolean usesSampler() {
+		return true;
+	}
+}
@@ -0,0 +1,129 @@
+package buffon.engine.kernel;
+
+import buffon.engine.SimulationEngine;
+
+import java.lang.reflect.Constructor;
+import java.util.function.Function;
+
+/**
+ * The available kernels for headless runs.
+ */
+public enum KernelType {
+
+	/**
+	 * Needles with their full geometry.
+	 */
+	GEOMETRIC(GeometricKernel::new, true),
+
+	/**
+	 * Only the distance to the nearest line and the angle.
+	 */
+	REDUCED(ReducedDomainKernel::new, true),
+
+	/**
+	 * The x coordinate and the angle, for a whole vector of needles at
+	 * once. Falls back to {@link #GEOMETRIC} if the Vector API is not
+	 * available (see {@link #isVectorAvailable()}).
+	 */
+	VECTOR(KernelType::createVectorKernel, false);
+
+	/**
+	 * The name of the vectorised kernel, which is compiled separately
+	 * and only present on JDK 17 or newer.
+	 */
+	private static final String VECTOR_KERNEL = "buffon.engine.kernel.VectorKernel";
+
+	/**
+	 * The constructor of the vectorised kernel, or null if the kernel
+	 * is not available on this JVM.
+	 */
+	private static final Constructor<?> VECTOR_CONSTRUCTOR = findVectorKernel();
+
+	/**
+	 * The constructor of the kernel.
+	 */
+	private Function<SimulationEngine, INeedleKernel> factory;
+
+	/**
+	 * A flag denoting whether the kernels keep no state between the
+	 * batches, other than the engine's generator.
+	 */
+	private boolean resumable;
+
+	/**
+	 * Creates a new kernel type.
+	 *
+	 * @param factory   the constructor of the kernel
+	 * @param resumable true if the kernels keep no state between the
+	 *                  batches, other than the engine's generator
+	 */
+	KernelType(Function<SimulationEngine, INeedleKernel> factory, boolean resumable) {
+		this.factory = factory;
+		this.resumable = resumable;
+	}
+
+	/**
+	 * Creates a new kernel of this type.
+	 *
+	 * @param engine the engine the kernel belongs to
+	 * @return a new kernel
+	 */
+	public INeedleKernel create(SimulationEngine engine) {
+		return factory.apply(engine);
+	}
+
+	/**
+	 * Checks whether a run of this kernel can be resumed from a
+	 * checkpoint, which only saves the generators. The vectorised
+	 * kernel cannot be: its lanes have generators of their own.
+	 *
+	 * @return true if a run of this kernel can be resumed
+	 */
+	public boolean isResumable() {
+		return resumable;
+	}
+
+	/**
+	 * Checks whether the vectorised kernel can be used on this JVM,
+	 * i.e. whether it was compiled and whether the
+	 * {@code jdk.incubator.vector} module is present (run the JVM with
+	 * {@code --add-modules jdk.incubator.vector}).
+	 *
+	 * @return true if {@link #VECTOR} uses the Vector API; false if it
+	 * falls back to {@link #GEOMETRIC}
+	 */
+	public static boolean isVectorAvailable() {
+		return VECTOR_CONSTRUCTOR != null;
+	}
+
+	/**
+	 * Looks up the constructor of the vectorised kernel.
+	 *
+	 * @return the constructor, or null if the kernel is not available
+	 */
+	private static Constructor<?> findVectorKernel() {
+		try {
+			// initialising the class creates its vector species, which fails without the module
+			Class<?> kernel = Class.forName(VECTOR_KERNEL, true, KernelType.class.getClassLoader());
+			return kernel.getConstructor(SimulationEngine.class);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates the vectorised kernel, or the geometric one if the Vector
+	 * API is not available.
+	 *
+	 * @param engine the engine the kernel belongs to
+	 * @return a new kernel
+	 */
+	private static INeedleKernel createVectorKernel(SimulationEngine engine) {
+		if (VECTOR_CONSTRUCTOR == null) return new GeometricKernel(engine);
+		try {
+			return (INeedleKernel) VECTOR_CONSTRUCTOR.newInstance(engine);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package buffon.engine.kernel;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.IRandomGenerator;
+
+/**
+ * A kernel which exploits the symmetries of the problem. Whether a
+ * needle crosses a line only depends on the distance {@code D} of its
+ * centre to the nearest line, uniform over [0, d/2], and on its angle
+ * {@code θ} to the lines' normal, uniform over [0, π/2]: the needle
+ * crosses a line if and only if {@code D <= l/2 * cos θ}. The kernel
+ * samples only these two values, so it needs neither the y coordinate,
+ * nor the endpoints, nor the color of a needle.
+ * <p>
+ * The needles are always sampled independently, regardless of the
+ * sampling mode of the engine. Since it shares no code with the
+ * geometric kernel besides the generator, it also serves as a
+ * cross-check of the geometric estimate.
+ */
+public class ReducedDomainKernel implements INeedleKernel {
+
+	/**
+	 * The engine whose geometry is used.
+	 */
+	private SimulationEngine engine;
+
+	/**
+	 * Creates a new kernel.
+	 *
+	 * @param engine the engine whose geometry is used
+	 */
+	public ReducedDomainKernel(SimulationEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	public int countHits(int count) {
+		IRandomGenerator rand = engine.getRandom();
+		double halfDistance = engine.getDistance() / 2;
+		double halfLength = engine.getNeedleLength() / 2;
+
+		int hits = 0;
+		for (int i = 0; i < count; i++) {
+			double d = rand.nextDouble() * halfDistance;
+			double angle = rand.nextDouble() * (Math.PI / 2);
+			if (d <= halfLength * Math.cos(angle)) hits++;
+		}
+		return hits;
+	}
+
+	@Override
+	public boolean usesSampler() {
+		return false;
+	}
+}
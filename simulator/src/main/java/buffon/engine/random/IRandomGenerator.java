@@ -0,0 +1,71 @@
+package buffon.engine.random;
+
+/**
+ * A seedable and splittable pseudo-random number generator.
+ * <p>
+ * Generators are not thread-safe; instead, every thread should use
+ * its own generator, obtained through {@link #split()}. Splitting is
+ * deterministic, so a whole tree of generators (e.g. one for each
+ * worker of a parallel run) is reproducible from a single seed.
+ */
+public interface IRandomGenerator {
+
+	/**
+	 * Returns the next pseudo-random 64-bit value.
+	 *
+	 * @return the next pseudo-random long
+	 */
+	long nextLong();
+
+	/**
+	 * Returns the next pseudo-random value, uniformly distributed
+	 * over the interval [0.0, 1.0).
+	 *
+	 * @return the next pseudo-random double
+	 */
+	default double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Returns the next pseudo-random value, uniformly distributed
+	 * over the interval [0, bound).
+	 *
+	 * @param bound the upper bound (exclusive); must be positive
+	 * @return the next pseudo-random int
+	 */
+	default int nextInt(int bound) {
+		if (bound <= 0) throw new IllegalArgumentException();
+		// Lemire's multiply-shift reduction; the bias is at most
+		// 2^-32 * bound, which is negligible for our bounds
+		return (int) (((nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Returns a new generator whose stream is independent of
+	 * (i.e. does not overlap with) the stream of this generator.
+	 * Advances the state of this generator.
+	 *
+	 * @return a new, independent generator
+	 */
+	IRandomGenerator split();
+
+	/**
+	 * Returns the current state of this generator, so that it can be
+	 * saved and later restored through {@link #setState(long[])}.
+	 *
+	 * @return a copy of the state of this generator
+	 */
+	long[] getState();
+
+	/**
+	 * Restores a state previously returned by {@link #getState()},
+	 * after which this generator continues the stream exactly where
+	 * the saved generator was.
+	 *
+	 * @param state the state to restore
+	 * @throws IllegalArgumentException if the state is not a valid
+	 *                                  state of this generator
+	 */
+	void setState(long[] state);
+}
@@ -0,0 +1,95 @@
+package buffon.engine.random;
+
+/**
+ * A generator implementing the PCG-XSH-RR 64/32 algorithm by
+ * O'Neill. Split generators get their own stream (increment),
+ * so their sequences are distinct.
+ */
+public class PcgGenerator implements IRandomGenerator {
+
+	/**
+	 * The multiplier of the underlying linear congruential generator.
+	 */
+	private static final long MULTIPLIER = 6364136223846793005L;
+
+	/**
+	 * The state of the underlying linear congruential generator.
+	 */
+	private long state;
+
+	/**
+	 * The increment (stream selector); always odd.
+	 */
+	private long increment;
+
+	/**
+	 * Creates a new generator with the given seed, using the
+	 * default stream.
+	 *
+	 * @param seed the seed
+	 */
+	public PcgGenerator(long seed) {
+		this(seed, 1442695040888963407L);
+	}
+
+	/**
+	 * Creates a new generator with the given seed and stream.
+	 *
+	 * @param seed   the seed
+	 * @param stream the stream selector
+	 */
+	public PcgGenerator(long seed, long stream) {
+		increment = (stream << 1) | 1;
+		step();
+		state += seed;
+		step();
+	}
+
+	/**
+	 * Returns the next pseudo-random 32-bit value.
+	 *
+	 * @return the next pseudo-random int
+	 */
+	public int nextInt() {
+		long old = state;
+		step();
+		int xorShifted = (int) (((old >>> 18) ^ old) >>> 27);
+		int rot = (int) (old >>> 59);
+		return Integer.rotateRight(xorShifted, rot);
+	}
+
+	@Override
+	public long nextLong() {
+		return ((long) nextInt() << 32) | (nextInt() & 0xffffffffL);
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) throw new IllegalArgumentException();
+		return (int) (((nextInt() & 0xffffffffL) * bound) >>> 32);
+	}
+
+	@Override
+	public IRandomGenerator split() {
+		return new PcgGenerator(nextLong(), nextLong());
+	}
+
+	@Override
+	public long[] getState() {
+		return new long[]{state, increment};
+	}
+
+	@Override
+	public void setState(long[] state) {
+		if (state.length != 2 || (state[1] & 1) == 0) throw new IllegalArgumentException();
+		this.state = state[0];
+		this.increment = state[1];
+	}
+
+	/**
+	 * Advances the state of the underlying linear congruential generator.
+	 */
+	private void step() {
+		state = state * MULTIPLIER + increment;
+	}
+}
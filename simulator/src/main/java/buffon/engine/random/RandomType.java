@@ -0,0 +1,83 @@
+package buffon.engine.random;
+
+import java.util.function.LongFunction;
+
+/**
+ * The available pseudo-random number generator algorithms.
+ */
+public enum RandomType {
+
+	/**
+	 * The JDK's {@link java.util.SplittableRandom}.
+	 */
+	SPLITTABLE(SplittableRandomGenerator.class, SplittableRandomGenerator::new),
+
+	/**
+	 * The xoroshiro128++ generator.
+	 */
+	XOROSHIRO(XoroshiroGenerator.class, XoroshiroGenerator::new),
+
+	/**
+	 * The PCG-XSH-RR 64/32 generator.
+	 */
+	PCG(PcgGenerator.class, PcgGenerator::new);
+
+	/**
+	 * The class of the generator.
+	 */
+	private Class<? extends IRandomGenerator> type;
+
+	/**
+	 * The constructor of the generator.
+	 */
+	private LongFunction<IRandomGenerator> factory;
+
+	/**
+	 * Creates a new generator type.
+	 *
+	 * @param type    the class of the generator
+	 * @param factory the constructor of the generator
+	 */
+	RandomType(Class<? extends IRandomGenerator> type, LongFunction<IRandomGenerator> factory) {
+		this.type = type;
+		this.factory = factory;
+	}
+
+	/**
+	 * Creates a new generator of this type.
+	 *
+	 * @param seed the seed of the generator
+	 * @return a new generator
+	 */
+	public IRandomGenerator create(long seed) {
+		return factory.apply(seed);
+	}
+
+	/**
+	 * Creates a new generator of this type, continuing from the given
+	 * saved state.
+	 *
+	 * @param state the state of the generator (see {@link IRandomGenerator#getState()})
+	 * @return a new generator
+	 * @throws IllegalArgumentException if the state is not valid for this type
+	 */
+	public IRandomGenerator restore(long[] state) {
+		IRandomGenerator generator = create(0);
+		generator.setState(state);
+		return generator;
+	}
+
+	/**
+	 * Returns the type of the given generator.
+	 *
+	 * @param generator the generator
+	 * @return the type of the generator
+	 * @throws IllegalArgumentException if the generator is of none of the types
+	 */
+	public static RandomType of(IRandomGenerator generator) {
+		for (RandomType t : values()) {
+			if (t.type == generator.getClass()) return t;
+		}
+		throw new IllegalArgumentException("Unknown generator: " + generator.getClass().getName());
+	}
+}
@@ -0,0 +1,93 @@
+package buffon.engine.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * The SplitMix64 generator, producing exactly the same streams as the
+ * JDK's {@link SplittableRandom} for the same seed. It is implemented
+ * here, rather than delegating to {@link SplittableRandom}, so that its
+ * state can be saved and restored.
+ */
+public class SplittableRandomGenerator implements IRandomGenerator {
+
+	/**
+	 * The default increment, an odd approximation of 2^64 / φ.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The current seed, advanced by {@link #gamma} for every value.
+	 */
+	private long seed;
+
+	/**
+	 * The increment of the seed; always odd.
+	 */
+	private long gamma;
+
+	/**
+	 * Creates a new generator with the given seed.
+	 *
+	 * @param seed the seed
+	 */
+	public SplittableRandomGenerator(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Creates a new generator with the given seed and increment.
+	 *
+	 * @param seed  the seed
+	 * @param gamma the increment of the seed; must be odd
+	 */
+	private SplittableRandomGenerator(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	@Override
+	public long nextLong() {
+		return XoroshiroGenerator.mix64(nextSeed());
+	}
+
+	@Override
+	public IRandomGenerator split() {
+		return new SplittableRandomGenerator(nextLong(), mixGamma(nextSeed()));
+	}
+
+	@Override
+	public long[] getState() {
+		return new long[]{seed, gamma};
+	}
+
+	@Override
+	public void setState(long[] state) {
+		if (state.length != 2 || (state[1] & 1) == 0) throw new IllegalArgumentException();
+		seed = state[0];
+		gamma = state[1];
+	}
+
+	/**
+	 * Advances the seed.
+	 *
+	 * @return the new seed
+	 */
+	private long nextSeed() {
+		return seed += gamma;
+	}
+
+	/**
+	 * Derives the increment of a split generator from the given value,
+	 * making it odd and avoiding increments with too few bit transitions.
+	 *
+	 * @param z the value
+	 * @return the increment
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
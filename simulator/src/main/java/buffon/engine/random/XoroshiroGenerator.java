@@ -0,0 +1,111 @@
+package buffon.engine.random;
+
+/**
+ * A generator implementing the xoroshiro128++ algorithm by
+ * Blackman and Vigna. Split generators are obtained through
+ * the jump function, so each of them owns a distinct, non
+ * overlapping block of 2^64 values of the same sequence.
+ */
+public class XoroshiroGenerator implements IRandomGenerator {
+
+	/**
+	 * The jump polynomial, equivalent to 2^64 calls to {@link #nextLong()}.
+	 */
+	private static final long[] JUMP = {0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L};
+
+	/**
+	 * The first half of the state.
+	 */
+	private long s0;
+
+	/**
+	 * The second half of the state.
+	 */
+	private long s1;
+
+	/**
+	 * Creates a new generator with the given seed. The state is
+	 * initialized from the seed using SplitMix64, as recommended
+	 * by the authors of the algorithm.
+	 *
+	 * @param seed the seed
+	 */
+	public XoroshiroGenerator(long seed) {
+		long z = seed;
+		s0 = mix64(z += 0x9e3779b97f4a7c15L);
+		s1 = mix64(z + 0x9e3779b97f4a7c15L);
+	}
+
+	/**
+	 * Creates a new generator with the given state.
+	 *
+	 * @param s0 the first half of the state
+	 * @param s1 the second half of the state
+	 */
+	private XoroshiroGenerator(long s0, long s1) {
+		this.s0 = s0;
+		this.s1 = s1;
+	}
+
+	@Override
+	public long nextLong() {
+		long s0 = this.s0;
+		long s1 = this.s1;
+		long result = Long.rotateLeft(s0 + s1, 17) + s0;
+
+		s1 ^= s0;
+		this.s0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+		this.s1 = Long.rotateLeft(s1, 28);
+		return result;
+	}
+
+	@Override
+	public IRandomGenerator split() {
+		XoroshiroGenerator copy = new XoroshiroGenerator(s0, s1);
+		jump();
+		return copy;
+	}
+
+	@Override
+	public long[] getState() {
+		return new long[]{s0, s1};
+	}
+
+	@Override
+	public void setState(long[] state) {
+		if (state.length != 2 || (state[0] == 0 && state[1] == 0)) throw new IllegalArgumentException();
+		s0 = state[0];
+		s1 = state[1];
+	}
+
+	/**
+	 * Advances the state of this generator by 2^64 steps.
+	 */
+	private void jump() {
+		long t0 = 0;
+		long t1 = 0;
+		for (long j : JUMP) {
+			for (int b = 0; b < 64; b++) {
+				if ((j & (1L << b)) != 0) {
+					t0 ^= s0;
+					t1 ^= s1;
+				}
+				nextLong();
+			}
+		}
+		s0 = t0;
+		s1 = t1;
+	}
+
+	/**
+	 * The SplitMix64 finalizer.
+	 *
+	 * @param z the value to mix
+	 * @return the mixed value
+	 */
+	static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,62 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples antithetic pairs of needles. The second needle of a pair has
+ * the same angle as the first one, but its centre is shifted by half
+ * of a strip, so its distance to the nearest line is {@code d/2 - D}
+ * where {@code D} is the distance of the first one. A pair thus rarely
+ * scores two hits (never, for needles shorter than {@code d/2}), and
+ * the negative correlation lowers the variance of the estimate.
+ */
+public class AntitheticSampler implements INeedleSampler {
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * Creates a new sampler.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public AntitheticSampler(IRandomGenerator rand) {
+		this.rand = rand;
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		double shift = width / strips / 2;
+
+		int i = 0;
+		for (; i + 1 < count; i += 2) {
+			double x = rand.nextDouble() * width;
+			double angle = rand.nextDouble() * 2 * Math.PI;
+
+			double antithetic = x + shift;
+			if (antithetic >= width) antithetic -= width; // the lines repeat every strip
+
+			batch.x[i] = x;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = angle;
+			batch.x[i + 1] = antithetic;
+			batch.y[i + 1] = rand.nextDouble() * height;
+			batch.angle[i + 1] = angle;
+		}
+
+		// an odd needle out is sampled on its own
+		if (i < count) {
+			batch.x[i] = rand.nextDouble() * width;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = rand.nextDouble() * 2 * Math.PI;
+		}
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return false;
+	}
+}
@@ -0,0 +1,61 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples independent, uniformly distributed centres and directions,
+ * without calling any trigonometric function. A point is drawn
+ * uniformly from the square [-1, 1] x [-1, 1] until it falls inside
+ * the unit disc; its direction from the origin is then uniformly
+ * distributed, and normalising it gives the needle's direction.
+ * <p>
+ * Besides being faster than {@code Math.cos} and {@code Math.sin},
+ * this does not rely on the value of π, which the simulation is
+ * supposed to estimate. On average, 4/π points are drawn per needle.
+ */
+public class DiscSampler implements INeedleSampler {
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * Creates a new sampler.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public DiscSampler(IRandomGenerator rand) {
+		this.rand = rand;
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		for (int i = 0; i < count; i++) {
+			batch.x[i] = rand.nextDouble() * width;
+			batch.y[i] = rand.nextDouble() * height;
+
+			double u, v, s;
+			do {
+				u = 2 * rand.nextDouble() - 1;
+				v = 2 * rand.nextDouble() - 1;
+				s = u * u + v * v;
+			} while (s > 1 || s == 0);
+
+			double norm = 1 / Math.sqrt(s);
+			batch.dx[i] = u * norm;
+			batch.dy[i] = v * norm;
+		}
+	}
+
+	@Override
+	public boolean samplesDirections() {
+		return true;
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return true;
+	}
+}
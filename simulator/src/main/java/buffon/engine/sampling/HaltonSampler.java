@@ -0,0 +1,90 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples the positions and the angles from the two-dimensional Halton
+ * low-discrepancy sequence (bases 2 and 3). Every sampler applies its
+ * own random shift modulo 1 (a Cranley-Patterson rotation), so samplers
+ * of parallel workers produce independent randomized replicates. The
+ * {@code y} coordinates do not affect the estimate and are sampled
+ * pseudo-randomly.
+ */
+public class HaltonSampler implements INeedleSampler {
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * The index of the next point.
+	 */
+	private long index = 1;
+
+	/**
+	 * The random shift of the first dimension.
+	 */
+	private final double shift1;
+
+	/**
+	 * The random shift of the second dimension.
+	 */
+	private final double shift2;
+
+	/**
+	 * Creates a new sampler with a random shift.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public HaltonSampler(IRandomGenerator rand) {
+		this.rand = rand;
+		shift1 = rand.nextDouble();
+		shift2 = rand.nextDouble();
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		for (int i = 0; i < count; i++, index++) {
+			batch.x[i] = rotate(radicalInverse(index, 2), shift1) * width;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = rotate(radicalInverse(index, 3), shift2) * 2 * Math.PI;
+		}
+	}
+
+	/**
+	 * Returns the radical inverse of the given index in the given base,
+	 * i.e. its digits mirrored around the radix point.
+	 *
+	 * @param index the index
+	 * @param base  the base
+	 * @return the radical inverse, from [0, 1)
+	 */
+	private static double radicalInverse(long index, int base) {
+		double inverse = 0;
+		double factor = 1.0 / base;
+		for (long n = index; n > 0; n /= base) {
+			inverse += (n % base) * factor;
+			factor /= base;
+		}
+		return inverse;
+	}
+
+	/**
+	 * Shifts the given value modulo 1.
+	 *
+	 * @param value the value from [0, 1)
+	 * @param shift the shift from [0, 1)
+	 * @return the shifted value, from [0, 1)
+	 */
+	private static double rotate(double value, double shift) {
+		double v = value + shift;
+		return v >= 1 ? v - 1 : v;
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return false;
+	}
+}
@@ -0,0 +1,43 @@
+package buffon.engine.sampling;
+
+import buffon.model.NeedleBatch;
+
+/**
+ * A strategy for sampling the positions and the angles of the thrown
+ * needles. Samplers are not thread-safe; every engine has its own.
+ */
+public interface INeedleSampler {
+
+	/**
+	 * Fills the centres ({@code x}, {@code y}) and the angles of the
+	 * first {@code count} needles of the given batch. The centres must
+	 * be uniformly distributed over the area and the angles over
+	 * [0, 2π), although the needles need not be independent.
+	 *
+	 * @param batch  the batch to fill
+	 * @param count  the number of needles to sample
+	 * @param width  the width of the area
+	 * @param height the height of the area
+	 * @param strips the number of strips the area is divided into
+	 */
+	void sample(NeedleBatch batch, int count, double width, double height, int strips);
+
+	/**
+	 * Checks whether the sampler fills the unit direction vectors
+	 * ({@code dx}, {@code dy}) of the needles instead of their angles,
+	 * sparing the engine the trigonometric functions.
+	 *
+	 * @return true if the sampler samples directions
+	 */
+	default boolean samplesDirections() {
+		return false;
+	}
+
+	/**
+	 * Checks whether the sampled needles are independent of each other,
+	 * i.e. whether the binomial variance of the hit proportion holds.
+	 *
+	 * @return true if the needles are independent
+	 */
+	boolean isIndependent();
+}
@@ -0,0 +1,86 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+
+import java.util.function.Function;
+
+/**
+ * The available needle sampling strategies.
+ */
+public enum SamplingMode {
+
+	/**
+	 * Independent, uniformly distributed needles.
+	 */
+	UNIFORM(UniformSampler::new, true),
+
+	/**
+	 * Antithetic pairs of needles.
+	 */
+	ANTITHETIC(AntitheticSampler::new, true),
+
+	/**
+	 * Latin hypercube sampling of the positions and the angles.
+	 */
+	STRATIFIED(StratifiedSampler::new, true),
+
+	/**
+	 * The randomized Sobol sequence.
+	 */
+	SOBOL(SobolSampler::new, false),
+
+	/**
+	 * The randomized Halton sequence.
+	 */
+	HALTON(HaltonSampler::new, false),
+
+	/**
+	 * Independent needles with directions sampled from the unit disc,
+	 * without trigonometric functions.
+	 */
+	DISC(DiscSampler::new, true);
+
+	/**
+	 * The constructor of the sampler.
+	 */
+	private Function<IRandomGenerator, INeedleSampler> factory;
+
+	/**
+	 * A flag denoting whether the samplers keep no state between the
+	 * batches, other than their generator.
+	 */
+	private boolean resumable;
+
+	/**
+	 * Creates a new sampling mode.
+	 *
+	 * @param factory   the constructor of the sampler
+	 * @param resumable true if the samplers keep no state between the
+	 *                  batches, other than their generator
+	 */
+	SamplingMode(Function<IRandomGenerator, INeedleSampler> factory, boolean resumable) {
+		this.factory = factory;
+		this.resumable = resumable;
+	}
+
+	/**
+	 * Creates a new sampler of this mode.
+	 *
+	 * @param rand the pseudo-random number generator of the sampler
+	 * @return a new sampler
+	 */
+	public INeedleSampler create(IRandomGenerator rand) {
+		return factory.apply(rand);
+	}
+
+	/**
+	 * Checks whether a run of this mode can be resumed from a checkpoint,
+	 * which only saves the generators. The quasi-random sequences cannot
+	 * be: their samplers would start over, repeating their points.
+	 *
+	 * @return true if a run of this mode can be resumed
+	 */
+	public boolean isResumable() {
+		return resumable;
+	}
+}
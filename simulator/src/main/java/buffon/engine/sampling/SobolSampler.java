@@ -0,0 +1,130 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples the positions and the angles from the two-dimensional Sobol
+ * low-discrepancy sequence, generated in Gray code order. Every sampler
+ * applies its own random digital shift to the sequence, so samplers of
+ * parallel workers produce independent randomized replicates. Once all
+ * 2^32 points of the sequence have been used, it starts over under a
+ * fresh digital shift, as a new replicate, instead of repeating them. The
+ * {@code y} coordinates do not affect the estimate and are sampled
+ * pseudo-randomly.
+ */
+public class SobolSampler implements INeedleSampler {
+
+	/**
+	 * The number of bits of the sequence.
+	 */
+	private static final int BITS = 32;
+
+	/**
+	 * The direction numbers of the first dimension (the van der Corput sequence).
+	 */
+	private static final int[] V1 = new int[BITS];
+
+	/**
+	 * The direction numbers of the second dimension (primitive polynomial x + 1).
+	 */
+	private static final int[] V2 = new int[BITS];
+
+	static {
+		for (int k = 0; k < BITS; k++) {
+			V1[k] = 1 << (BITS - 1 - k);
+		}
+		V2[0] = 1 << (BITS - 1);
+		for (int k = 1; k < BITS; k++) {
+			V2[k] = V2[k - 1] ^ (V2[k - 1] >>> 1);
+		}
+	}
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * The index of the next point.
+	 */
+	private long index;
+
+	/**
+	 * The current point of the first dimension.
+	 */
+	private int x1;
+
+	/**
+	 * The current point of the second dimension.
+	 */
+	private int x2;
+
+	/**
+	 * The digital shift of the first dimension.
+	 */
+	private int shift1;
+
+	/**
+	 * The digital shift of the second dimension.
+	 */
+	private int shift2;
+
+	/**
+	 * Creates a new sampler with a random digital shift.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public SobolSampler(IRandomGenerator rand) {
+		this.rand = rand;
+		shift();
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		for (int i = 0; i < count; i++) {
+			if (index == 1L << BITS) {
+				// the sequence is exhausted; start over as a new replicate
+				index = 0;
+				x1 = 0;
+				x2 = 0;
+				shift();
+			}
+			if (index > 0) {
+				// Gray code order: flip the direction number of the lowest zero bit of the previous index
+				int c = Long.numberOfTrailingZeros(~(index - 1));
+				x1 ^= V1[c];
+				x2 ^= V2[c];
+			}
+			index++;
+
+			batch.x[i] = unit(x1 ^ shift1) * width;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = unit(x2 ^ shift2) * 2 * Math.PI;
+		}
+	}
+
+	/**
+	 * Draws a new random digital shift of the sequence.
+	 */
+	private void shift() {
+		long shift = rand.nextLong();
+		shift1 = (int) shift;
+		shift2 = (int) (shift >>> 32);
+	}
+
+	/**
+	 * Maps the given bits onto the interval [0, 1).
+	 *
+	 * @param bits the bits of the binary fraction
+	 * @return the value from [0, 1)
+	 */
+	private static double unit(int bits) {
+		return (bits & 0xffffffffL) * 0x1.0p-32;
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return false;
+	}
+}
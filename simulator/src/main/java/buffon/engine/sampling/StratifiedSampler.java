@@ -0,0 +1,62 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples the needles of a batch by Latin hypercube sampling: both the
+ * positions and the angles are divided into as many equal strata as
+ * there are needles in the batch, each needle is placed uniformly in
+ * one position stratum and one angle stratum, and the strata are paired
+ * by a random permutation. Every batch thus covers all positions and
+ * all angles evenly.
+ */
+public class StratifiedSampler implements INeedleSampler {
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * The permutation pairing the strata; reused between batches.
+	 */
+	private int[] permutation = new int[0];
+
+	/**
+	 * Creates a new sampler.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public StratifiedSampler(IRandomGenerator rand) {
+		this.rand = rand;
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		if (permutation.length < count) {
+			permutation = new int[count];
+		}
+		for (int i = 0; i < count; i++) {
+			permutation[i] = i;
+		}
+		for (int i = count - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int t = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = t;
+		}
+
+		double stratum = 1.0 / count;
+		for (int i = 0; i < count; i++) {
+			batch.x[i] = (i + rand.nextDouble()) * stratum * width;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = (permutation[i] + rand.nextDouble()) * stratum * 2 * Math.PI;
+		}
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return false;
+	}
+}
@@ -0,0 +1,38 @@
+package buffon.engine.sampling;
+
+import buffon.engine.random.IRandomGenerator;
+import buffon.model.NeedleBatch;
+
+/**
+ * Samples independent, uniformly distributed centres and angles.
+ */
+public class UniformSampler implements INeedleSampler {
+
+	/**
+	 * The pseudo-random number generator.
+	 */
+	private IRandomGenerator rand;
+
+	/**
+	 * Creates a new sampler.
+	 *
+	 * @param rand the pseudo-random number generator
+	 */
+	public UniformSampler(IRandomGenerator rand) {
+		this.rand = rand;
+	}
+
+	@Override
+	public void sample(NeedleBatch batch, int count, double width, double height, int strips) {
+		for (int i = 0; i < count; i++) {
+			batch.x[i] = rand.nextDouble() * width;
+			batch.y[i] = rand.nextDouble() * height;
+			batch.angle[i] = rand.nextDouble() * 2 * Math.PI;
+		}
+	}
+
+	@Override
+	public boolean isIndependent() {
+		return true;
+	}
+}
@@ -0,0 +1,120 @@
+package buffon.model;
+
+/**
+ * A fixed-capacity batch of needles, stored as a structure of
+ * primitive arrays. A batch is allocated once and then refilled
+ * over and over, so throwing needles through a batch does not
+ * allocate any objects.
+ */
+public class NeedleBatch {
+
+	/**
+	 * The x coordinates of the needle centres.
+	 */
+	public final double[] x;
+
+	/**
+	 * The y coordinates of the needle centres.
+	 */
+	public final double[] y;
+
+	/**
+	 * The angles of the needles, in radians.
+	 */
+	public final double[] angle;
+
+	/**
+	 * The x components of the needles' unit direction vectors, filled
+	 * instead of the angles by samplers which sample directions.
+	 */
+	public final double[] dx;
+
+	/**
+	 * The y components of the needles' unit direction vectors, filled
+	 * instead of the angles by samplers which sample directions.
+	 */
+	public final double[] dy;
+
+	/**
+	 * The x coordinates of the first points.
+	 */
+	public final double[] x1;
+
+	/**
+	 * The y coordinates of the first points.
+	 */
+	public final double[] y1;
+
+	/**
+	 * The x coordinates of the second points.
+	 */
+	public final double[] x2;
+
+	/**
+	 * The y coordinates of the second points.
+	 */
+	public final double[] y2;
+
+	/**
+	 * The colors of the needles, packed as ARGB.
+	 */
+	public final int[] color;
+
+	/**
+	 * The flags denoting which needles have landed on a line.
+	 */
+	public final boolean[] hit;
+
+	/**
+	 * The number of needles currently held by the batch.
+	 */
+	private int size;
+
+	/**
+	 * Creates a new, empty batch.
+	 *
+	 * @param capacity the maximum number of needles in the batch
+	 */
+	public NeedleBatch(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException();
+		x = new double[capacity];
+		y = new double[capacity];
+		angle = new double[capacity];
+		dx = new double[capacity];
+		dy = new double[capacity];
+		x1 = new double[capacity];
+		y1 = new double[capacity];
+		x2 = new double[capacity];
+		y2 = new double[capacity];
+		color = new int[capacity];
+		hit = new boolean[capacity];
+	}
+
+	/**
+	 * Returns the maximum number of needles in the batch.
+	 *
+	 * @return the capacity of the batch
+	 */
+	public int getCapacity() {
+		return x.length;
+	}
+
+	/**
+	 * Returns the number of needles currently held by the batch.
+	 *
+	 * @return the size of the batch
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Sets the number of needles currently held by the batch.
+	 *
+	 * @param size the size of the batch
+	 */
+	public void setSize(int size) {
+		if (size < 0 || size > getCapacity()) throw new IllegalArgumentException();
+		this.size = size;
+	}
+}
@@ -0,0 +1,62 @@
+package buffon.util;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes files atomically: the contents are first written and synced
+ * to a temporary file in the same directory, which is then moved over
+ * the target file. A crash while writing therefore never leaves a
+ * corrupted or half-written file behind; the previous version of the
+ * file survives instead.
+ */
+public class AtomicFile {
+
+	/**
+	 * The contents of a file, written to a stream.
+	 */
+	@FunctionalInterface
+	public interface Contents {
+
+		/**
+		 * Writes the contents to the given (buffered) stream.
+		 *
+		 * @param out the stream
+		 * @throws IOException if the stream cannot be written to
+		 */
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Atomically replaces the given file with the given contents.
+	 *
+	 * @param path     the file
+	 * @param contents the new contents of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path path, Contents contents) throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+				OutputStream out = new BufferedOutputStream(file, 1 << 16);
+				contents.writeTo(out);
+				out.flush();
+				file.getFD().sync();
+			}
+			try {
+				Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package buffon.components.canvas;
+
+import buffon.engine.SimulationEngine;
+import buffon.engine.random.RandomType;
+import buffon.model.NeedleBatch;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link DensityCounts} of a producer add up to the same
+ * heatmap and engine values as counting the needles directly.
+ */
+class DensityCountsTest {
+
+	/**
+	 * The width of the images.
+	 */
+	private static final int WIDTH = 600;
+
+	/**
+	 * The height of the images.
+	 */
+	private static final int HEIGHT = 400;
+
+	/**
+	 * Creates an engine with a fixed geometry and seed.
+	 *
+	 * @param seed the seed of the generator
+	 * @return the engine
+	 */
+	private static SimulationEngine createEngine(long seed) {
+		SimulationEngine engine = new SimulationEngine(RandomType.XOROSHIRO.create(seed));
+		engine.setGeometry(WIDTH, HEIGHT, 3, 0.5);
+		return engine;
+	}
+
+	/**
+	 * Creates a heatmap on a new image.
+	 *
+	 * @return the heatmap
+	 */
+	private static DensityHeatmap createHeatmap() {
+		return new DensityHeatmap(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB));
+	}
+
+	/**
+	 * Counted and drained needles give the counts of the needles
+	 * accumulated directly, and their values are merged into the engine.
+	 */
+	@Test
+	void drainsLikeDirectCounting() throws InterruptedException {
+		SimulationEngine producer = createEngine(1);
+		SimulationEngine engine = createEngine(2);
+		DensityHeatmap direct = createHeatmap();
+		DensityHeatmap drained = createHeatmap();
+		DensityCounts counts = new DensityCounts();
+
+		NeedleBatch batch = new NeedleBatch(1000);
+		long hits = 0;
+		for (int i = 0; i < 10; i++) {
+			producer.generateBatch(batch, 1000, false);
+			int batchHits = producer.scoreBatch(batch);
+			hits += batchHits;
+			direct.accumulate(batch);
+			counts.accumulate(batch, batchHits, drained);
+			if (i % 3 == 0) counts.drainTo(drained, engine);
+		}
+		counts.drainTo(drained, engine);
+
+		assertTrue(hits > 0);
+		assertArrayEquals(direct.getCounts(), drained.getCounts());
+		assertEquals(10_000, engine.getThrownCount());
+		assertEquals(hits, engine.getHitCount());
+	}
+
+	/**
+	 * Needles counted on a replaced heatmap, e.g. before a resize, are
+	 * not added to the new one, but are still merged into the engine.
+	 */
+	@Test
+	void discardsPixelsOfReplacedHeatmap() throws InterruptedException {
+		SimulationEngine producer = createEngine(1);
+		SimulationEngine engine = createEngine(2);
+		DensityHeatmap old = createHeatmap();
+		DensityHeatmap current = createHeatmap();
+		DensityCounts counts = new DensityCounts();
+
+		NeedleBatch batch = new NeedleBatch(1000);
+		producer.generateBatch(batch, 1000, false);
+		int hits = producer.scoreBatch(batch);
+		counts.accumulate(batch, hits, old);
+		counts.drainTo(current, engine);
+
+		assertTrue(hits > 0);
+		assertArrayEquals(new int[WIDTH * HEIGHT], current.getCounts());
+		assertArrayEquals(new int[WIDTH * HEIGHT], old.getCounts());
+		assertEquals(1000, engine.getThrownCount());
+		assertEquals(hits, engine.getHitCount());
+	}
+}
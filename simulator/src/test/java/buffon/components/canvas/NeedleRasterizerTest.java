@@ -0,0 +1,144 @@
+package buffon.components.canvas;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link NeedleRasterizer} only draws within its bounds.
+ */
+class NeedleRasterizerTest {
+
+	/**
+	 * The background color of the images.
+	 */
+	private static final int BACKGROUND = 0xffe1e1e1;
+
+	/**
+	 * The color of the needles.
+	 */
+	private static final int COLOR = 0xff102030;
+
+	/**
+	 * Creates an image filled with the {@link #BACKGROUND}.
+	 *
+	 * @param width  the width of the image
+	 * @param height the height of the image
+	 * @return the image
+	 */
+	private static BufferedImage createImage(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Arrays.fill(pixels(image), BACKGROUND);
+		return image;
+	}
+
+	/**
+	 * Returns the pixels of the given image.
+	 *
+	 * @param image the image
+	 * @return the pixels, row by row
+	 */
+	private static int[] pixels(BufferedImage image) {
+		return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+
+	/**
+	 * Needles reaching past the edges of the image, far outside of it
+	 * or with invalid coordinates are drawn without an exception.
+	 */
+	@Test
+	void clipsToImage() {
+		BufferedImage image = createImage(50, 40);
+		NeedleRasterizer rasterizer = new NeedleRasterizer(image);
+
+		rasterizer.draw(-20, -20, 70, 60, COLOR);
+		rasterizer.draw(25, -1e9, 25, 1e9, COLOR);
+		rasterizer.draw(-1e6, 5, -1e6 + 10, 5, COLOR);
+		rasterizer.draw(0, 0, 0, 0, COLOR);
+		rasterizer.draw(49.9, 39.9, 49.9, 39.9, COLOR);
+		rasterizer.draw(Double.NaN, 10, 20, 10, COLOR);
+		rasterizer.draw(10, 10, Double.POSITIVE_INFINITY, 10, COLOR);
+
+		Random random = new Random(1);
+		for (int i = 0; i < 10_000; i++) {
+			double x = -30 + random.nextDouble() * 110;
+			double y = -30 + random.nextDouble() * 100;
+			double angle = random.nextDouble() * 2 * Math.PI;
+			rasterizer.draw(x, y, x + 40 * Math.cos(angle), y + 40 * Math.sin(angle), COLOR);
+		}
+	}
+
+	/**
+	 * A rasterizer limited to a rectangle leaves the pixels outside of
+	 * it untouched, and draws the parts of the needles inside of it.
+	 */
+	@Test
+	void staysWithinRectangle() {
+		BufferedImage image = createImage(64, 48);
+		NeedleRasterizer rasterizer = new NeedleRasterizer(image, 16, 8, 24, 20);
+
+		Random random = new Random(2);
+		for (int i = 0; i < 5000; i++) {
+			double x = random.nextDouble() * 64;
+			double y = random.nextDouble() * 48;
+			double angle = random.nextDouble() * 2 * Math.PI;
+			rasterizer.draw(x, y, x + 30 * Math.cos(angle), y + 30 * Math.sin(angle), COLOR);
+		}
+
+		int[] pixels = pixels(image);
+		boolean drawn = false;
+		for (int y = 0; y < 48; y++) {
+			for (int x = 0; x < 64; x++) {
+				int pixel = pixels[y * 64 + x];
+				if (x >= 16 && x < 40 && y >= 8 && y < 28) {
+					drawn |= pixel != BACKGROUND;
+				} else {
+					assertEquals(BACKGROUND, pixel, "pixel (" + x + ", " + y + ")");
+				}
+			}
+		}
+		assertTrue(drawn);
+	}
+
+	/**
+	 * A needle only touches the pixels near its segment.
+	 */
+	@Test
+	void staysNearNeedle() {
+		BufferedImage image = createImage(40, 40);
+		new NeedleRasterizer(image).draw(10, 20, 30, 20, COLOR);
+
+		int[] pixels = pixels(image);
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 40; x++) {
+				boolean near = x >= 10 - NeedleRasterizer.WIDTH && x <= 30 + NeedleRasterizer.WIDTH
+						&& Math.abs(y - 20) <= NeedleRasterizer.WIDTH;
+				if (!near) assertEquals(BACKGROUND, pixels[y * 40 + x], "pixel (" + x + ", " + y + ")");
+			}
+		}
+		assertNotEquals(BACKGROUND, pixels[20 * 40 + 20]);
+	}
+
+	/**
+	 * Rectangles outside of the image, and images of other types,
+	 * are rejected.
+	 */
+	@Test
+	void rejectsInvalidBounds() {
+		BufferedImage image = createImage(20, 10);
+		assertThrows(IllegalArgumentException.class, () -> new NeedleRasterizer(image, -1, 0, 5, 5));
+		assertThrows(IllegalArgumentException.class, () -> new NeedleRasterizer(image, 16, 0, 5, 5));
+		assertThrows(IllegalArgumentException.class, () -> new NeedleRasterizer(image, 0, 6, 5, 5));
+		assertThrows(IllegalArgumentException.class, () -> new NeedleRasterizer(image, 0, 0, 0, 5));
+		assertThrows(IllegalArgumentException.class,
+				() -> new NeedleRasterizer(new BufferedImage(5, 5, BufferedImage.TYPE_INT_RGB)));
+	}
+}
@@ -0,0 +1,222 @@
+package buffon.engine;
+
+import buffon.engine.kernel.KernelType;
+import buffon.engine.random.IRandomGenerator;
+import buffon.engine.random.RandomType;
+import buffon.engine.sampling.SamplingMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests writing, reading and resuming {@link Checkpoint}s.
+ */
+class CheckpointTest {
+
+	/**
+	 * The directory of the checkpoint files.
+	 */
+	@TempDir
+	Path directory;
+
+	/**
+	 * Creates an engine with a run behind it.
+	 *
+	 * @return the engine
+	 */
+	private static SimulationEngine createEngine() {
+		SimulationEngine engine = new SimulationEngine(RandomType.PCG.create(5));
+		engine.setGeometry(640, 480, 4, 0.75);
+		engine.setSamplingMode(SamplingMode.ANTITHETIC);
+		engine.setKernelType(KernelType.REDUCED);
+		for (int i = 0; i < 20; i++) {
+			engine.merge(1000, engine.countHits(1000));
+		}
+		return engine;
+	}
+
+	/**
+	 * Creates a checkpoint of a parallel run of two workers, in progress.
+	 *
+	 * @param engine the engine
+	 * @return the checkpoint
+	 */
+	private static Checkpoint createCheckpoint(SimulationEngine engine) {
+		IRandomGenerator master = engine.getRandom().split();
+		long[][] workers = {master.split().getState(), master.split().getState()};
+		return new Checkpoint(engine, 123_456_789, 1_000_000, 0.01, 0.99,
+				master, workers, new long[]{30_000, 40_000});
+	}
+
+	/**
+	 * Writes the given checkpoint into an array.
+	 *
+	 * @param checkpoint the checkpoint
+	 * @return the bytes of the checkpoint
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	private static byte[] toBytes(Checkpoint checkpoint) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		checkpoint.write(out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Reads a checkpoint from the given bytes.
+	 *
+	 * @param bytes the bytes of the checkpoint
+	 * @return the checkpoint
+	 * @throws IOException if the bytes are not a valid checkpoint
+	 */
+	private static Checkpoint fromBytes(byte[] bytes) throws IOException {
+		return Checkpoint.read(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * A checkpoint read back from a file holds the same values.
+	 *
+	 * @throws IOException if the file cannot be written or read
+	 */
+	@Test
+	void roundTrip() throws IOException {
+		SimulationEngine engine = createEngine();
+		Checkpoint checkpoint = createCheckpoint(engine);
+		Path file = directory.resolve("run.bin");
+		checkpoint.write(file);
+		Checkpoint read = Checkpoint.read(file);
+
+		assertEquals(640, read.getWidth());
+		assertEquals(480, read.getHeight());
+		assertEquals(4, read.getStrips());
+		assertEquals(0.75, read.getLengthFactor());
+		assertEquals(RandomType.PCG, read.getGenerator());
+		assertEquals(SamplingMode.ANTITHETIC, read.getSamplingMode());
+		assertEquals(KernelType.REDUCED, read.getKernelType());
+		assertArrayEquals(engine.getConvergenceTracker().getState(), read.getCounts());
+		assertEquals(123_456_789, read.getElapsedNanos());
+		assertEquals(1_000_000, read.getTarget());
+		assertEquals(0.01, read.getPrecision());
+		assertEquals(0.99, read.getConfidence());
+		assertEquals(2, read.getWorkerCount());
+		assertEquals(30_000, read.getRemaining(0));
+		assertEquals(40_000, read.getRemaining(1));
+		assertEquals(checkpoint.createRandom().nextLong(), read.createRandom().nextLong());
+		assertEquals(checkpoint.createWorkerRandom(1).nextLong(), read.createWorkerRandom(1).nextLong());
+		assertArrayEquals(toBytes(checkpoint), toBytes(read));
+	}
+
+	/**
+	 * Resuming the same checkpoint twice gives the same counts.
+	 *
+	 * @throws Exception if the checkpoint cannot be read, or if interrupted
+	 */
+	@Test
+	void resumeIsReproducible() throws Exception {
+		byte[] bytes = toBytes(createCheckpoint(createEngine()));
+
+		long[][] counts = new long[2][];
+		for (int i = 0; i < counts.length; i++) {
+			Checkpoint checkpoint = fromBytes(bytes);
+			SimulationEngine engine = checkpoint.createEngine();
+			ParallelSimulation simulation = new ParallelSimulation(engine, 2, checkpoint.createRandom());
+			try {
+				simulation.resume(checkpoint);
+			} finally {
+				simulation.shutdown();
+			}
+			counts[i] = engine.getConvergenceTracker().getState();
+		}
+		assertEquals(20_000 + 70_000, counts[0][1]);
+		assertArrayEquals(counts[0], counts[1]);
+	}
+
+	/**
+	 * Checkpoints whose bytes have been flipped, cut short or replaced
+	 * are rejected.
+	 *
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	@Test
+	void rejectsCorruptCheckpoints() throws IOException {
+		byte[] bytes = toBytes(createCheckpoint(createEngine()));
+
+		for (int i = 0; i < bytes.length; i++) {
+			byte[] corrupt = bytes.clone();
+			corrupt[i] ^= 0x10;
+			assertThrows(IOException.class, () -> fromBytes(corrupt), "flipped byte " + i);
+		}
+		for (int length = 0; length < bytes.length; length += 7) {
+			byte[] truncated = Arrays.copyOf(bytes, length);
+			assertThrows(IOException.class, () -> fromBytes(truncated), "truncated to " + length);
+		}
+		assertThrows(IOException.class, () -> fromBytes("not a checkpoint".getBytes("UTF-8")));
+	}
+
+	/**
+	 * A worker count out of range is rejected before anything is
+	 * allocated for the workers.
+	 *
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	@Test
+	void rejectsWorkerCountOutOfRange() throws IOException {
+		byte[] bytes = toBytes(Checkpoint.of(createEngine(), 0, 0));
+		// without workers, the count is the last value before the checksum
+		int offset = bytes.length - Long.BYTES - Integer.BYTES;
+		assertEquals(0, ByteBuffer.wrap(bytes, offset, Integer.BYTES).getInt());
+		assertEquals(0, fromBytes(bytes).getWorkerCount());
+
+		for (int count : new int[]{-1, ParallelSimulation.MAX_THREADS + 1, Integer.MAX_VALUE}) {
+			byte[] corrupt = bytes.clone();
+			ByteBuffer.wrap(corrupt, offset, Integer.BYTES).putInt(count);
+			assertThrows(IOException.class, () -> fromBytes(corrupt), "count " + count);
+		}
+	}
+
+	/**
+	 * Runs whose samplers or kernels keep a state of their own are
+	 * rejected when resumed, while the others are accepted.
+	 *
+	 * @throws IOException if the checkpoint cannot be written
+	 */
+	@Test
+	void rejectsUnresumableModes() throws IOException {
+		for (SamplingMode mode : SamplingMode.values()) {
+			SimulationEngine engine = createEngine();
+			engine.setSamplingMode(mode);
+			Checkpoint checkpoint = fromBytes(toBytes(Checkpoint.of(engine, 0, 0)));
+			if (mode == SamplingMode.SOBOL || mode == SamplingMode.HALTON) {
+				IOException e = assertThrows(IOException.class, checkpoint::checkResumable);
+				assertTrue(e.getMessage().contains(mode.toString()));
+			} else {
+				checkpoint.checkResumable();
+			}
+		}
+
+		SimulationEngine engine = createEngine();
+		engine.setKernelType(KernelType.VECTOR);
+		Checkpoint checkpoint = fromBytes(toBytes(Checkpoint.of(engine, 0, 0)));
+		assertThrows(IOException.class, checkpoint::checkResumable);
+	}
+
+	/**
+	 * Reading a missing file fails with an exception naming the file.
+	 */
+	@Test
+	void missingFile() {
+		Path file = directory.resolve("missing.bin");
+		IOException e = assertThrows(IOException.class, () -> Checkpoint.read(file));
+		assertTrue(e.getMessage().startsWith(file.toString()));
+	}
+}
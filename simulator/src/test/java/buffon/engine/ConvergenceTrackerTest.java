@@ -0,0 +1,191 @@
+package buffon.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the confidence intervals of the {@link ConvergenceTracker}.
+ */
+class ConvergenceTrackerTest {
+
+	/**
+	 * The ratio {@code 2l/d} of the simulated needles.
+	 */
+	private static final double RATIO = 0.8;
+
+	/**
+	 * The probability of a hit, for the ratio {@link #RATIO}.
+	 */
+	private static final double P = RATIO / Math.PI;
+
+	/**
+	 * The number of simulated runs.
+	 */
+	private static final int RUNS = 1000;
+
+	/**
+	 * Adds the given number of batches of simulated independent
+	 * needles to the given tracker.
+	 *
+	 * @param tracker the tracker
+	 * @param random  the generator of the needles
+	 * @param batches the number of batches
+	 * @param size    the number of needles per batch
+	 */
+	private static void simulate(ConvergenceTracker tracker, Random random, int batches, int size) {
+		for (int b = 0; b < batches; b++) {
+			int hits = 0;
+			for (int i = 0; i < size; i++) {
+				if (random.nextDouble() < P) hits++;
+			}
+			tracker.add(size, hits);
+		}
+	}
+
+	/**
+	 * Returns the share of the simulated runs whose 95% interval
+	 * contains π.
+	 *
+	 * @param batchMeans true to use the batch-means variance
+	 * @return the coverage of the intervals
+	 */
+	private static double coverage(boolean batchMeans) {
+		Random random = new Random(batchMeans ? 2 : 1);
+		int covered = 0;
+		for (int run = 0; run < RUNS; run++) {
+			ConvergenceTracker tracker = new ConvergenceTracker();
+			tracker.setBatchMeans(batchMeans);
+			simulate(tracker, random, 50, 400);
+
+			Convergence c = tracker.getConvergence(RATIO, 0.95);
+			if (c.getLower() <= Math.PI && Math.PI <= c.getUpper()) covered++;
+		}
+		return (double) covered / RUNS;
+	}
+
+	/**
+	 * The binomial 95% intervals cover π in about 95% of the runs.
+	 */
+	@Test
+	void binomialCoverage() {
+		double coverage = coverage(false);
+		assertTrue(coverage > 0.93 && coverage < 0.97, "coverage " + coverage);
+	}
+
+	/**
+	 * The batch-means 95% intervals cover π in about 95% of the runs
+	 * (slightly less, as the normal quantile is used for 50 batches).
+	 */
+	@Test
+	void batchMeansCoverage() {
+		double coverage = coverage(true);
+		assertTrue(coverage > 0.92 && coverage < 0.97, "coverage " + coverage);
+	}
+
+	/**
+	 * The standard errors match the ones computed directly from the data.
+	 */
+	@Test
+	void knownData() {
+		long[] sizes = {100, 200, 100, 300, 100, 200, 100, 300, 100, 200, 100, 300};
+		long[] hits = {20, 50, 30, 60, 10, 40, 20, 80, 30, 30, 20, 70};
+		ConvergenceTracker tracker = new ConvergenceTracker();
+		long n = 0;
+		long h = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			tracker.add(sizes[i], hits[i]);
+			n += sizes[i];
+			h += hits[i];
+		}
+		double p = (double) h / n;
+		double pi = 1 / p;
+
+		Convergence binomial = tracker.getConvergence(1, 0.95);
+		assertEquals(n, binomial.getThrownCount());
+		assertEquals(pi, binomial.getPI(), 1e-12);
+		assertEquals(pi / p * Math.sqrt(p * (1 - p) / n), binomial.getStandardError(), 1e-12);
+
+		// the ratio estimator's variance, from the batches directly
+		double squares = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			double residual = hits[i] - p * sizes[i];
+			squares += residual * residual;
+		}
+		int k = sizes.length;
+		double mean = (double) n / k;
+		double varianceP = squares / (k * (k - 1) * mean * mean);
+		tracker.setBatchMeans(true);
+		Convergence batchMeans = tracker.getConvergence(1, 0.95);
+		assertEquals(pi / p * Math.sqrt(varianceP), batchMeans.getStandardError(), 1e-9);
+	}
+
+	/**
+	 * Without hits or with too few batches for the batch-means
+	 * variance, the interval is unbounded.
+	 */
+	@Test
+	void unboundedWithoutData() {
+		ConvergenceTracker tracker = new ConvergenceTracker();
+		assertEquals(Double.POSITIVE_INFINITY, tracker.getConvergence(RATIO, 0.95).getStandardError());
+
+		tracker.setBatchMeans(true);
+		for (int i = 1; i < ConvergenceTracker.MIN_BATCHES; i++) {
+			tracker.add(100, 25);
+		}
+		assertEquals(Double.POSITIVE_INFINITY, tracker.getConvergence(RATIO, 0.95).getStandardError());
+	}
+
+	/**
+	 * A restored state gives the same interval, and invalid states
+	 * are rejected.
+	 */
+	@Test
+	void stateRoundTrip() {
+		ConvergenceTracker tracker = new ConvergenceTracker();
+		tracker.setBatchMeans(true);
+		simulate(tracker, new Random(3), 20, 1000);
+
+		ConvergenceTracker restored = new ConvergenceTracker();
+		restored.setBatchMeans(true);
+		restored.setState(tracker.getState());
+		assertArrayEquals(tracker.getState(), restored.getState());
+		assertEquals(tracker.getConvergence(RATIO, 0.95).getStandardError(),
+				restored.getConvergence(RATIO, 0.95).getStandardError());
+
+		assertThrows(IllegalArgumentException.class, () -> restored.setState(new long[5]));
+		assertThrows(IllegalArgumentException.class, () -> restored.setState(new long[]{1, 10, 11, 0, 0, 0}));
+	}
+
+	/**
+	 * Batches merged from several threads at once are all counted.
+	 *
+	 * @throws InterruptedException if interrupted
+	 */
+	@Test
+	void concurrentAdds() throws InterruptedException {
+		ConvergenceTracker tracker = new ConvergenceTracker();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 50_000; i++) {
+					tracker.add(1024, 300);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+
+		long[] state = tracker.getState();
+		assertEquals(200_000, state[0]);
+		assertEquals(200_000L * 1024, state[1]);
+		assertEquals(200_000L * 300, state[2]);
+	}
+}
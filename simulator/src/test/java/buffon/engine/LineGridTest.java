@@ -0,0 +1,82 @@
+package buffon.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the constant-time crossing test of the {@link LineGrid}
+ * against a scan over all lines.
+ */
+class LineGridTest {
+
+	/**
+	 * Checks whether a needle crosses a line by scanning all lines.
+	 *
+	 * @param grid the grid of lines
+	 * @param x1   the x coordinate of the first point
+	 * @param x2   the x coordinate of the second point
+	 * @return true if the needle crosses a line
+	 */
+	private static boolean bruteForce(LineGrid grid, double x1, double x2) {
+		double min = Math.min(x1, x2);
+		double max = Math.max(x1, x2);
+		for (int k = 0; k <= grid.getStrips(); k++) {
+			double line = k * grid.getDistance();
+			if (min <= line && line <= max) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Random needles, including ones reaching past the outer lines,
+	 * cross a line exactly when the scan says so.
+	 */
+	@Test
+	void matchesBruteForce() {
+		Random random = new Random(42);
+		for (int strips : new int[]{1, 2, 3, 7, 50}) {
+			LineGrid grid = new LineGrid(600.0 / strips, strips);
+			double span = strips * grid.getDistance();
+			for (int i = 0; i < 100_000; i++) {
+				double x1 = -span / 4 + random.nextDouble() * span * 1.5;
+				double x2 = x1 + (random.nextDouble() - 0.5) * grid.getDistance() * 1.5;
+				assertEquals(bruteForce(grid, x1, x2), grid.crosses(x1, x2),
+						"strips " + strips + ", needle " + x1 + " to " + x2);
+			}
+		}
+	}
+
+	/**
+	 * Needles ending exactly on a line touch it; needles beyond the
+	 * outer lines do not.
+	 */
+	@Test
+	void edgeCases() {
+		LineGrid grid = new LineGrid(100, 3);
+		assertTrue(grid.crosses(100, 150));
+		assertTrue(grid.crosses(150, 200));
+		assertTrue(grid.crosses(0, 0));
+		assertTrue(grid.crosses(300, 310));
+		assertTrue(grid.crosses(-10, 10));
+		assertFalse(grid.crosses(101, 199));
+		assertFalse(grid.crosses(-50, -1));
+		assertFalse(grid.crosses(301, 350));
+		assertFalse(grid.crosses(Double.NaN, 50));
+	}
+
+	/**
+	 * Invalid grids are rejected.
+	 */
+	@Test
+	void rejectsInvalidGrid() {
+		assertThrows(IllegalArgumentException.class, () -> new LineGrid(0, 3));
+		assertThrows(IllegalArgumentException.class, () -> new LineGrid(Double.NaN, 3));
+		assertThrows(IllegalArgumentException.class, () -> new LineGrid(100, 0));
+	}
+}
@@ -0,0 +1,96 @@
+package buffon.engine;
+
+import buffon.engine.random.RandomType;
+import buffon.model.NeedleBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link SimulationEngine} on its own, without a canvas.
+ */
+class SimulationEngineTest {
+
+	/**
+	 * Creates an engine with a fixed geometry and seed.
+	 *
+	 * @param seed the seed of the generator
+	 * @return the engine
+	 */
+	private static SimulationEngine createEngine(long seed) {
+		SimulationEngine engine = new SimulationEngine(RandomType.XOROSHIRO.create(seed));
+		engine.setGeometry(600, 400, 3, 0.5);
+		return engine;
+	}
+
+	/**
+	 * Generated batches are scored against the lines, and their merged
+	 * values are counted.
+	 */
+	@Test
+	void throwsBatchesWithoutCanvas() {
+		SimulationEngine engine = createEngine(1);
+		NeedleBatch batch = new NeedleBatch(1000);
+		long hits = 0;
+		for (int i = 0; i < 10; i++) {
+			engine.generateBatch(batch, 1000, false);
+			int batchHits = engine.scoreBatch(batch);
+			engine.merge(batch.getSize(), batchHits);
+			hits += batchHits;
+
+			int marked = 0;
+			for (int j = 0; j < batch.getSize(); j++) {
+				assertEquals(engine.landedOnLine(batch.x1[j], batch.x2[j]), batch.hit[j]);
+				if (batch.hit[j]) marked++;
+			}
+			assertEquals(batchHits, marked);
+		}
+
+		assertEquals(10_000, engine.getThrownCount());
+		assertEquals(hits, engine.getHitCount());
+	}
+
+	/**
+	 * Two engines with the same seed generate the same needles.
+	 */
+	@Test
+	void sameSeedSameNeedles() {
+		SimulationEngine a = createEngine(42);
+		SimulationEngine b = createEngine(42);
+		NeedleBatch n = new NeedleBatch(1000);
+		NeedleBatch m = new NeedleBatch(1000);
+		a.generateBatch(n, 1000);
+		b.generateBatch(m, 1000);
+		assertArrayEquals(n.x1, m.x1);
+		assertArrayEquals(n.y1, m.y1);
+		assertArrayEquals(n.x2, m.x2);
+		assertArrayEquals(n.y2, m.y2);
+		assertArrayEquals(n.color, m.color);
+		assertEquals(a.scoreBatch(n), b.scoreBatch(m));
+	}
+
+	/**
+	 * Merged values are added to the counters, and restoring the saved
+	 * state of an engine reproduces its estimate.
+	 */
+	@Test
+	void mergesAndRestores() {
+		SimulationEngine engine = createEngine(7);
+		engine.merge(1_000_000, engine.countHits(1_000_000));
+		assertEquals(1_000_000, engine.getThrownCount());
+		assertTrue(Math.abs(engine.getPI() - Math.PI) < 0.05);
+
+		long[] state = engine.getConvergenceTracker().getState();
+		SimulationEngine copy = createEngine(8);
+		copy.restore(state);
+		assertEquals(engine.getThrownCount(), copy.getThrownCount());
+		assertEquals(engine.getHitCount(), copy.getHitCount());
+		assertArrayEquals(state, copy.getConvergenceTracker().getState());
+
+		engine.reset();
+		assertEquals(0, engine.getThrownCount());
+		assertEquals(0, engine.getHitCount());
+	}
+}
@@ -0,0 +1,122 @@
+package buffon.engine.random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the reproducibility of the generators of every {@link RandomType}.
+ */
+class RandomGeneratorTest {
+
+	/**
+	 * The number of values compared.
+	 */
+	private static final int VALUES = 10_000;
+
+	/**
+	 * Asserts that the given generators produce the same values.
+	 *
+	 * @param expected the reference generator
+	 * @param actual   the generator to check
+	 */
+	private static void assertSameStream(IRandomGenerator expected, IRandomGenerator actual) {
+		for (int i = 0; i < VALUES; i++) {
+			assertEquals(expected.nextLong(), actual.nextLong());
+		}
+	}
+
+	/**
+	 * Generators created with the same seed produce the same values,
+	 * and so do their splits.
+	 *
+	 * @param type the generator type
+	 */
+	@ParameterizedTest
+	@EnumSource(RandomType.class)
+	void sameSeedSameStream(RandomType type) {
+		IRandomGenerator a = type.create(42);
+		IRandomGenerator b = type.create(42);
+		assertSameStream(a.split(), b.split());
+		assertSameStream(a, b);
+	}
+
+	/**
+	 * Generators created with different seeds, or split from each
+	 * other, produce different values.
+	 *
+	 * @param type the generator type
+	 */
+	@ParameterizedTest
+	@EnumSource(RandomType.class)
+	void differentSeedsDifferentStreams(RandomType type) {
+		assertNotEquals(type.create(1).nextLong(), type.create(2).nextLong());
+
+		IRandomGenerator parent = type.create(3);
+		IRandomGenerator child = parent.split();
+		int equal = 0;
+		for (int i = 0; i < VALUES; i++) {
+			if (parent.nextLong() == child.nextLong()) equal++;
+		}
+		assertEquals(0, equal);
+	}
+
+	/**
+	 * A restored generator continues the stream exactly where the saved
+	 * one was, and the type of a generator is recognized.
+	 *
+	 * @param type the generator type
+	 */
+	@ParameterizedTest
+	@EnumSource(RandomType.class)
+	void stateRoundTrip(RandomType type) {
+		IRandomGenerator generator = type.create(7);
+		for (int i = 0; i < 1000; i++) {
+			generator.nextLong();
+		}
+
+		long[] state = generator.getState();
+		IRandomGenerator restored = type.restore(state);
+		assertSame(type, RandomType.of(restored));
+		assertSameStream(generator, restored);
+
+		// the state is a copy
+		state[0] ^= 1;
+		assertSameStream(generator, restored);
+	}
+
+	/**
+	 * Generators reject states of the wrong size.
+	 *
+	 * @param type the generator type
+	 */
+	@ParameterizedTest
+	@EnumSource(RandomType.class)
+	void rejectsInvalidState(RandomType type) {
+		assertThrows(IllegalArgumentException.class, () -> type.restore(new long[0]));
+		assertThrows(IllegalArgumentException.class, () -> type.restore(new long[7]));
+	}
+
+	/**
+	 * The derived values stay within their ranges.
+	 *
+	 * @param type the generator type
+	 */
+	@ParameterizedTest
+	@EnumSource(RandomType.class)
+	void valuesInRange(RandomType type) {
+		IRandomGenerator generator = type.create(11);
+		for (int i = 0; i < VALUES; i++) {
+			double d = generator.nextDouble();
+			assertTrue(d >= 0 && d < 1);
+			int n = generator.nextInt(256);
+			assertTrue(n >= 0 && n < 256);
+		}
+		assertThrows(IllegalArgumentException.class, () -> generator.nextInt(0));
+	}
+}